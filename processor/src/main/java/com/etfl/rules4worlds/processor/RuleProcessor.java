@@ -0,0 +1,296 @@
+package com.etfl.rules4worlds.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the component tree for classes annotated with {@code @RuleCategory}.
+ * For every top level category class {@code Foo}, a class {@code FooConfig} is generated in the same package,
+ * whose {@code create()} method builds a {@code SimpleConfigCategory} containing a setting for every {@code @Rule} field
+ * and a nested category for every nested {@code @RuleCategory} class.
+ * The settings use the initial values of the fields as default values and mirror every new value into the fields.
+ * <p>
+ * The annotations are referenced by name, so the processor does not depend on the library.
+ */
+@SupportedAnnotationTypes(RuleProcessor.RULE_CATEGORY)
+@SupportedSourceVersion(SourceVersion.RELEASE_21)
+public class RuleProcessor extends AbstractProcessor {
+    static final String RULE_CATEGORY = "com.etfl.rules4worlds.annotations.RuleCategory";
+    private static final String RULE = "com.etfl.rules4worlds.annotations.Rule";
+    private static final String ENUM_SETTING_TYPE = "com.etfl.rules4worlds.settings.EnumSettingType";
+
+    private static final String CATEGORY = "com.etfl.rules4worlds.categories.SimpleConfigCategory";
+    private static final String SETTINGS = "com.etfl.rules4worlds.settings.";
+    private static final String ARGUMENTS = "com.mojang.brigadier.arguments.";
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement ruleCategory = processingEnv.getElementUtils().getTypeElement(RULE_CATEGORY);
+        if (ruleCategory == null) return false;
+
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(ruleCategory))) {
+            if (annotation(type.getEnclosingElement(), RULE_CATEGORY) == null) generate(type);
+        }
+
+        return true;
+    }
+
+    /**
+     * Generates the config class for a top level category class.
+     * @param type the category class
+     */
+    private void generate(TypeElement type) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String className = type.getSimpleName() + "Config";
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+        StringBuilder methods = new StringBuilder();
+        if (!category(type, "create", true, methods)) return;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n")
+                .append(" * Builds the config category of {@link ").append(type.getQualifiedName()).append("}.\n")
+                .append(" * Generated by the Rules4Worlds annotation processor, do not edit.\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(RuleProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(className).append(" {\n")
+                .append("    private ").append(className).append("() {}\n")
+                .append(methods)
+                .append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(type, "Failed to generate " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the method that builds the category of the given class and the methods of its nested categories.
+     * @param type the category class
+     * @param methodName the name of the method
+     * @param isPublic whether the method is public
+     * @param methods the methods of the generated class
+     * @return {@code true} if the category is valid, {@code false} if an error was reported
+     */
+    private boolean category(TypeElement type, String methodName, boolean isPublic, StringBuilder methods) {
+        boolean valid = true;
+        String owner = type.getQualifiedName().toString();
+        StringBuilder body = new StringBuilder();
+
+        body.append("        ").append(CATEGORY).append(" category = new ").append(CATEGORY).append("(")
+                .append(literal(categoryName(type))).append(");\n");
+
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.FIELD && annotation(element, RULE) != null) {
+                String setting = setting((VariableElement) element, owner);
+
+                if (setting == null) valid = false;
+                else body.append("        category.add(").append(setting).append(");\n");
+            } else if (element instanceof TypeElement nested && annotation(nested, RULE_CATEGORY) != null) {
+                if (nested.getModifiers().contains(Modifier.PRIVATE)) {
+                    error(nested, "Nested rule categories must not be private");
+                    valid = false;
+                    continue;
+                }
+
+                String nestedMethod = methodName + nested.getSimpleName();
+
+                valid &= category(nested, nestedMethod, false, methods);
+                body.append("        category.add(").append(nestedMethod).append("());\n");
+            }
+        }
+
+        methods.append("\n    /**\n")
+                .append("     * Creates the category of {@link ").append(owner).append("} with a setting for every rule.\n")
+                .append("     * @return the category\n")
+                .append("     */\n")
+                .append("    ").append(isPublic ? "public " : "private ").append("static ").append(CATEGORY).append(" ")
+                .append(methodName).append("() {\n")
+                .append(body)
+                .append("        return category;\n")
+                .append("    }\n");
+
+        return valid;
+    }
+
+    /**
+     * Creates the expression that creates the setting for a field.
+     * @param field the field annotated with {@code @Rule}
+     * @param owner the qualified name of the class declaring the field
+     * @return the expression or {@code null} if an error was reported
+     */
+    private String setting(VariableElement field, String owner) {
+        Set<Modifier> modifiers = field.getModifiers();
+
+        if (!modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.PRIVATE)) {
+            error(field, "Rule fields must be static, not final and not private");
+            return null;
+        }
+
+        AnnotationMirror rule = annotation(field, RULE);
+        String name = (String) value(rule, "name");
+        double min = (Double) value(rule, "min");
+        double max = (Double) value(rule, "max");
+        boolean bounded = min != Double.NEGATIVE_INFINITY || max != Double.POSITIVE_INFINITY;
+
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            error(field, "The minimum and maximum of a rule must be numbers");
+            return null;
+        }
+
+        if (min > max) {
+            error(field, "The minimum of a rule must not be greater than its maximum");
+            return null;
+        }
+
+        String fieldName = owner + "." + field.getSimpleName();
+        String settingName = literal(name.isEmpty() ? field.getSimpleName().toString() : name);
+        String mirror = ".mirrorTo(value -> " + fieldName + " = value)";
+        TypeMirror type = field.asType();
+
+        return switch (type.getKind()) {
+            case INT -> wholeNumbers(field, min, max, Integer.MIN_VALUE, Integer.MAX_VALUE) ? "new " + SETTINGS + "IntConfigSetting(" + settingName + ", "
+                    + ARGUMENTS + "IntegerArgumentType.integer(" + intBound(min, "Integer.MIN_VALUE") + ", " + intBound(max, "Integer.MAX_VALUE") + "), "
+                    + fieldName + ")" + mirror : null;
+            case LONG -> wholeNumbers(field, min, max, Long.MIN_VALUE, Math.nextDown((double) Long.MAX_VALUE)) ? "new " + SETTINGS + "LongConfigSetting(" + settingName + ", "
+                    + ARGUMENTS + "LongArgumentType.longArg(" + longBound(min, "Long.MIN_VALUE") + ", " + longBound(max, "Long.MAX_VALUE") + "), "
+                    + fieldName + ")" + mirror : null;
+            case FLOAT -> floatNumbers(field, min, max) ? "new " + SETTINGS + "FloatConfigSetting(" + settingName + ", "
+                    + ARGUMENTS + "FloatArgumentType.floatArg(" + floatBound(min, "-Float.MAX_VALUE") + ", " + floatBound(max, "Float.MAX_VALUE") + "), "
+                    + fieldName + ")" + mirror : null;
+            case DOUBLE -> "new " + SETTINGS + "DoubleConfigSetting(" + settingName + ", "
+                    + ARGUMENTS + "DoubleArgumentType.doubleArg(" + doubleBound(min, "-Double.MAX_VALUE") + ", " + doubleBound(max, "Double.MAX_VALUE") + "), "
+                    + fieldName + ")" + mirror;
+            case BOOLEAN -> {
+                if (bounded) error(field, "Boolean rules can not have a minimum or maximum");
+                yield bounded ? null : "new " + SETTINGS + "BoolConfigSetting(" + settingName + ", "
+                        + ARGUMENTS + "BoolArgumentType.bool(), " + fieldName + ")" + mirror;
+            }
+            case DECLARED -> {
+                if (processingEnv.getTypeUtils().asElement(type).getKind() != ElementKind.ENUM) {
+                    error(field, "Unsupported rule type " + type);
+                    yield null;
+                }
+
+                if (!isEnumSettingType(type)) {
+                    error(field, "Enum rules must be enums implementing EnumSettingType");
+                    yield null;
+                }
+
+                if (bounded) error(field, "Enum rules can not have a minimum or maximum");
+                yield bounded ? null : "new " + SETTINGS + "EnumConfigSetting<>(" + settingName + ", " + fieldName + ")" + mirror;
+            }
+            default -> {
+                error(field, "Unsupported rule type " + type);
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Checks that the bounds of an integer rule are whole numbers in the range of the type of the field.
+     * @param lowest the lowest value of the type
+     * @param highest the highest value of the type that a double can hold exactly
+     * @return {@code true} if the bounds are valid, {@code false} if an error was reported
+     */
+    private boolean wholeNumbers(VariableElement field, double min, double max, double lowest, double highest) {
+        if (!isWholeOrInfinite(min) || !isWholeOrInfinite(max)) {
+            error(field, "The minimum and maximum of integer rules must be whole numbers");
+            return false;
+        }
+
+        boolean inRange = isInRangeOrInfinite(min, lowest, highest) && isInRangeOrInfinite(max, lowest, highest);
+        if (!inRange) error(field, "The minimum and maximum of " + field.asType() + " rules must be in the range of " + field.asType());
+        return inRange;
+    }
+
+    /**
+     * Checks that the bounds of a float rule neither overflow to infinity nor underflow to zero when they are converted to float.
+     * @return {@code true} if the bounds are valid, {@code false} if an error was reported
+     */
+    private boolean floatNumbers(VariableElement field, double min, double max) {
+        boolean inRange = isFloatOrInfinite(min) && isFloatOrInfinite(max);
+        if (!inRange) error(field, "The minimum and maximum of float rules must be in the range of float");
+        return inRange;
+    }
+
+    private static boolean isWholeOrInfinite(double value) {
+        return Double.isInfinite(value) || value == Math.rint(value);
+    }
+
+    private static boolean isInRangeOrInfinite(double value, double lowest, double highest) {
+        return Double.isInfinite(value) || value >= lowest && value <= highest;
+    }
+
+    private static boolean isFloatOrInfinite(double value) {
+        float rounded = (float) value;
+        return Double.isInfinite(value) || !Float.isInfinite(rounded) && (rounded != 0 || value == 0);
+    }
+
+    private static String intBound(double value, String infinite) {
+        return Double.isInfinite(value) ? infinite : Integer.toString((int) value);
+    }
+
+    private static String longBound(double value, String infinite) {
+        return Double.isInfinite(value) ? infinite : (long) value + "L";
+    }
+
+    private static String floatBound(double value, String infinite) {
+        return Double.isInfinite(value) ? infinite : (float) value + "f";
+    }
+
+    private static String doubleBound(double value, String infinite) {
+        return Double.isInfinite(value) ? infinite : Double.toString(value);
+    }
+
+    private boolean isEnumSettingType(TypeMirror type) {
+        TypeElement enumSettingType = processingEnv.getElementUtils().getTypeElement(ENUM_SETTING_TYPE);
+
+        return enumSettingType != null && processingEnv.getTypeUtils().isAssignable(type, processingEnv.getTypeUtils().erasure(enumSettingType.asType()));
+    }
+
+    private String categoryName(TypeElement type) {
+        String name = (String) value(annotation(type, RULE_CATEGORY), "value");
+        if (!name.isEmpty()) return name;
+
+        String simpleName = type.getSimpleName().toString();
+        return Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+    }
+
+    private static AnnotationMirror annotation(Element element, String qualifiedName) {
+        if (element == null) return null;
+
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(qualifiedName)) return mirror;
+        }
+
+        return null;
+    }
+
+    private Object value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) return entry.getValue().getValue();
+        }
+
+        throw new IllegalArgumentException("Unknown annotation value " + name);
+    }
+
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
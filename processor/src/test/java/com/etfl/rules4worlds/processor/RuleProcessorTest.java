@@ -0,0 +1,262 @@
+package com.etfl.rules4worlds.processor;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the {@link RuleProcessor} with the system java compiler on sources in memory.
+ * Only runs the annotation processing, so the generated sources are checked as text and the library does not need to be on the classpath.
+ */
+class RuleProcessorTest {
+    /**
+     * The annotations, which the processor references by name.
+     */
+    private static final String RULE = """
+            package com.etfl.rules4worlds.annotations;
+            public @interface Rule {
+                String name() default "";
+                double min() default Double.NEGATIVE_INFINITY;
+                double max() default Double.POSITIVE_INFINITY;
+            }
+            """;
+    private static final String RULE_CATEGORY = """
+            package com.etfl.rules4worlds.annotations;
+            public @interface RuleCategory {
+                String value() default "";
+            }
+            """;
+
+    /**
+     * The return type of the generated methods. The method bodies are not compiled, so the settings are not needed.
+     */
+    private static final String CATEGORY = """
+            package com.etfl.rules4worlds.categories;
+            public class SimpleConfigCategory {}
+            """;
+
+    @Test
+    void generatesCategory() {
+        Result result = process("example.Mobs", """
+                package example;
+                import com.etfl.rules4worlds.annotations.*;
+                @RuleCategory("mobs")
+                public class Mobs {
+                    @Rule(min = 0, max = 10) static int maxPerChunk = 4;
+                    @Rule(name = "speed") static double speedMultiplier = 1.5;
+                    @Rule(min = 0.5, max = 2) static float scale = 1;
+                    @Rule static long seed = 0;
+                    @Rule static boolean enabled = true;
+
+                    @RuleCategory
+                    static class Spawning {
+                        @Rule static boolean natural = true;
+                    }
+                }
+                """);
+
+        assertEquals(List.of(), result.errors());
+
+        String source = result.generated().get("example.MobsConfig");
+        assertNotNull(source);
+        assertTrue(source.contains("public static com.etfl.rules4worlds.categories.SimpleConfigCategory create()"));
+        assertTrue(source.contains("new com.etfl.rules4worlds.categories.SimpleConfigCategory(\"mobs\")"));
+        assertTrue(source.contains("com.mojang.brigadier.arguments.IntegerArgumentType.integer(0, 10), example.Mobs.maxPerChunk)"));
+        assertTrue(source.contains("new com.etfl.rules4worlds.settings.DoubleConfigSetting(\"speed\", "));
+        assertTrue(source.contains("com.mojang.brigadier.arguments.FloatArgumentType.floatArg(0.5f, 2.0f)"));
+        assertTrue(source.contains("com.mojang.brigadier.arguments.LongArgumentType.longArg(Long.MIN_VALUE, Long.MAX_VALUE)"));
+        assertTrue(source.contains(".mirrorTo(value -> example.Mobs.enabled = value)"));
+        assertTrue(source.contains("private static com.etfl.rules4worlds.categories.SimpleConfigCategory createSpawning()"));
+        assertTrue(source.contains("new com.etfl.rules4worlds.categories.SimpleConfigCategory(\"spawning\")"));
+        assertTrue(source.contains("category.add(createSpawning());"));
+    }
+
+    @Test
+    void rejectsIntBoundOutOfRange() {
+        Result result = process("example.Limits", """
+                package example;
+                import com.etfl.rules4worlds.annotations.*;
+                @RuleCategory
+                public class Limits {
+                    @Rule(max = 1e10) static int limit = 0;
+                }
+                """);
+
+        assertEquals(List.of("The minimum and maximum of int rules must be in the range of int"), result.errors());
+        assertFalse(result.generated().containsKey("example.LimitsConfig"));
+    }
+
+    @Test
+    void rejectsLongBoundOutOfRange() {
+        Result result = process("example.Limits", """
+                package example;
+                import com.etfl.rules4worlds.annotations.*;
+                @RuleCategory
+                public class Limits {
+                    @Rule(min = -1e19) static long limit = 0;
+                }
+                """);
+
+        assertEquals(List.of("The minimum and maximum of long rules must be in the range of long"), result.errors());
+    }
+
+    @Test
+    void rejectsFractionalIntBound() {
+        Result result = process("example.Limits", """
+                package example;
+                import com.etfl.rules4worlds.annotations.*;
+                @RuleCategory
+                public class Limits {
+                    @Rule(min = 0.5) static int limit = 1;
+                }
+                """);
+
+        assertEquals(List.of("The minimum and maximum of integer rules must be whole numbers"), result.errors());
+    }
+
+    @Test
+    void rejectsFloatBoundOutOfRange() {
+        Result result = process("example.Scales", """
+                package example;
+                import com.etfl.rules4worlds.annotations.*;
+                @RuleCategory
+                public class Scales {
+                    @Rule(max = 1e39) static float overflow = 0;
+                    @Rule(min = 1e-50) static float underflow = 1;
+                    @Rule(min = 0, max = 1e38) static float valid = 1;
+                }
+                """);
+
+        assertEquals(List.of(
+                "The minimum and maximum of float rules must be in the range of float",
+                "The minimum and maximum of float rules must be in the range of float"
+        ), result.errors());
+    }
+
+    @Test
+    void rejectsMinimumGreaterThanMaximum() {
+        Result result = process("example.Limits", """
+                package example;
+                import com.etfl.rules4worlds.annotations.*;
+                @RuleCategory
+                public class Limits {
+                    @Rule(min = 2, max = 1) static double limit = 1;
+                }
+                """);
+
+        assertEquals(List.of("The minimum of a rule must not be greater than its maximum"), result.errors());
+    }
+
+    @Test
+    void rejectsPrivateNestedCategory() {
+        Result result = process("example.Mobs", """
+                package example;
+                import com.etfl.rules4worlds.annotations.*;
+                @RuleCategory
+                public class Mobs {
+                    @RuleCategory
+                    private static class Spawning {
+                        @Rule static boolean natural = true;
+                    }
+                }
+                """);
+
+        assertEquals(List.of("Nested rule categories must not be private"), result.errors());
+        assertFalse(result.generated().containsKey("example.MobsConfig"));
+    }
+
+    @Test
+    void rejectsInvalidFields() {
+        Result result = process("example.Mobs", """
+                package example;
+                import com.etfl.rules4worlds.annotations.*;
+                @RuleCategory
+                public class Mobs {
+                    @Rule private static int hidden = 0;
+                    @Rule static final int constant = 0;
+                    @Rule static String name = "";
+                    @Rule(max = 1) static boolean enabled = true;
+                }
+                """);
+
+        assertEquals(List.of(
+                "Rule fields must be static, not final and not private",
+                "Rule fields must be static, not final and not private",
+                "Unsupported rule type java.lang.String",
+                "Boolean rules can not have a minimum or maximum"
+        ), result.errors());
+    }
+
+    /**
+     * Runs the annotation processing on a category class.
+     * @param className the qualified name of the class
+     * @param source the source of the class
+     * @return the reported errors and the generated sources
+     */
+    private static Result process(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> generated = new TreeMap<>();
+
+        JavaFileManager fileManager = new ForwardingJavaFileManager<>(compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return generated.computeIfAbsent(className, name -> new ByteArrayOutputStream());
+                    }
+
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return generated.get(className).toString(StandardCharsets.UTF_8);
+                    }
+                };
+            }
+        };
+
+        List<JavaFileObject> sources = List.of(
+                source("com.etfl.rules4worlds.annotations.Rule", RULE),
+                source("com.etfl.rules4worlds.annotations.RuleCategory", RULE_CATEGORY),
+                source("com.etfl.rules4worlds.categories.SimpleConfigCategory", CATEGORY),
+                source(className, source)
+        );
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, List.of("-proc:only"), null, sources);
+        task.setProcessors(List.of(new RuleProcessor()));
+        task.call();
+
+        List<String> errors = diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(Locale.ROOT))
+                .toList();
+
+        Map<String, String> generatedSources = new TreeMap<>();
+        generated.forEach((name, bytes) -> generatedSources.put(name, bytes.toString(StandardCharsets.UTF_8)));
+
+        return new Result(errors, generatedSources);
+    }
+
+    private static JavaFileObject source(String className, String source) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+    }
+
+    /**
+     * The result of the annotation processing.
+     * @param errors the messages of the reported errors in the order they were reported
+     * @param generated the generated sources by qualified class name
+     */
+    private record Result(List<String> errors, Map<String, String> generated) {}
+}
@@ -0,0 +1,18 @@
+package com.etfl.rules4worlds;
+
+import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+
+/**
+ * Receives the synced settings of all {@link ConfigManager}s and passes them to their {@link ClientMirror}.
+ */
+public class Rules4WorldsClient implements ClientModInitializer {
+    @Override
+    public void onInitializeClient() {
+        RuleSyncPayload.register();
+
+        ClientPlayNetworking.registerGlobalReceiver(RuleSyncPayload.ID, (payload, context) -> ClientMirror.receive(payload));
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> ClientMirror.resetAll());
+    }
+}
@@ -0,0 +1,51 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.BoolConfigSetting;
+import com.etfl.rules4worlds.settings.IntConfigSetting;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading settings in a hot loop through the getter and through the constant accessor invoked from a {@code static final} field,
+ * which the JIT can fold into a constant between changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessorBenchmark {
+    private static final int OPERATIONS = 1000;
+
+    private static final IntConfigSetting INT_SETTING = new IntConfigSetting("maxPerChunk", IntegerArgumentType.integer(0, 1000), 70);
+    private static final BoolConfigSetting BOOL_SETTING = new BoolConfigSetting("enabled", BoolArgumentType.bool(), true);
+
+    private static final MethodHandle INT_ACCESSOR = INT_SETTING.accessor();
+    private static final MethodHandle BOOL_ACCESSOR = BOOL_SETTING.accessor();
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int getter() {
+        int sum = 0;
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (BOOL_SETTING.get()) sum += INT_SETTING.get();
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int accessor() throws Throwable {
+        int sum = 0;
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            if ((boolean) BOOL_ACCESSOR.invokeExact()) sum += (int) INT_ACCESSOR.invokeExact();
+        }
+
+        return sum;
+    }
+}
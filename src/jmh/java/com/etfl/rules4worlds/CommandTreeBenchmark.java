@@ -0,0 +1,37 @@
+package com.etfl.rules4worlds;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.tree.CommandNode;
+import net.minecraft.server.command.ServerCommandSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static net.minecraft.server.command.CommandManager.literal;
+
+/**
+ * Measures building the Brigadier command tree of all components, as done when the commands are registered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandTreeBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private List<ConfigComponent> components;
+
+    @Setup
+    public void setup() {
+        components = ConfigTrees.components(size, new ArrayList<>());
+    }
+
+    @Benchmark
+    public CommandNode<ServerCommandSource> buildCommandTree() {
+        LiteralArgumentBuilder<ServerCommandSource> command = literal("benchmark");
+        components.forEach(component -> component.initialize(command));
+        return command.build();
+    }
+}
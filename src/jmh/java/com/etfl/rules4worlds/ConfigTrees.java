@@ -0,0 +1,123 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.categories.SimpleConfigCategory;
+import com.etfl.rules4worlds.settings.*;
+import com.mojang.brigadier.arguments.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds synthetic config trees for the benchmarks.
+ * The settings cycle through all built-in setting types and are nested in {@link SimpleConfigCategory SimpleConfigCategories}
+ * with at most {@value #FAN_OUT} components each.
+ */
+final class ConfigTrees {
+    private static final int FAN_OUT = 10;
+
+    private ConfigTrees() {}
+
+    /**
+     * Creates and initializes a {@link ConfigManager} with the given number of settings.
+     * @param size the number of settings
+     * @param useSettingsTable whether the values are packed into a settings table
+     * @return the tree with the initialized {@code ConfigManager}
+     */
+    static @NotNull Tree create(int size, boolean useSettingsTable) {
+        ConfigManager manager = new ConfigManager("benchmark");
+        if (useSettingsTable) manager.useSettingsTable();
+
+        List<ConfigSetting> settings = new ArrayList<>();
+        components(size, settings).forEach(manager::add);
+
+        manager.initialize();
+        return new Tree(manager, settings);
+    }
+
+    /**
+     * Creates the top level components of a tree with the given number of settings.
+     * @param size the number of settings
+     * @param settings the list the created settings are added to
+     * @return the top level categories
+     */
+    static @NotNull List<ConfigComponent> components(int size, @NotNull List<ConfigSetting> settings) {
+        List<ConfigComponent> level = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            ConfigSetting setting = setting(i);
+            settings.add(setting);
+            level.add(setting);
+        }
+
+        do {
+            level = group(level);
+        } while (level.size() > FAN_OUT);
+
+        return level;
+    }
+
+    private static @NotNull ConfigSetting setting(int i) {
+        String name = "setting" + i;
+
+        return switch (i % 6) {
+            case 0 -> new IntConfigSetting(name, IntegerArgumentType.integer(0, 1000), i % 1000);
+            case 1 -> new LongConfigSetting(name, LongArgumentType.longArg(), i);
+            case 2 -> new FloatConfigSetting(name, FloatArgumentType.floatArg(), i * 0.5f);
+            case 3 -> new DoubleConfigSetting(name, DoubleArgumentType.doubleArg(), i * 0.25);
+            case 4 -> new BoolConfigSetting(name, BoolArgumentType.bool(), i % 4 == 0);
+            default -> new EnumConfigSetting<>(name, Intensity.values()[i % Intensity.values().length]);
+        };
+    }
+
+    private static @NotNull List<ConfigComponent> group(@NotNull List<ConfigComponent> components) {
+        List<ConfigComponent> categories = new ArrayList<>();
+
+        for (int i = 0; i < components.size(); i += FAN_OUT) {
+            SimpleConfigCategory category = new SimpleConfigCategory("category" + categories.size());
+            components.subList(i, Math.min(i + FAN_OUT, components.size())).forEach(category::add);
+            categories.add(category);
+        }
+
+        return categories;
+    }
+
+    /**
+     * A synthetic config tree.
+     * @param manager the initialized manager of the tree
+     * @param settings all settings of the tree in the order they were added
+     */
+    record Tree(@NotNull ConfigManager manager, @NotNull List<ConfigSetting> settings) {
+        /**
+         * Gets the settings of the given type.
+         * @param type the type of the settings
+         * @return the settings of the given type in the order they were added
+         * @param <T> the type of the settings
+         */
+        <T extends ConfigSetting> @NotNull List<T> settings(@NotNull Class<T> type) {
+            return settings.stream().filter(type::isInstance).map(type::cast).toList();
+        }
+    }
+
+    /**
+     * The enum used by the enum settings of the synthetic trees.
+     */
+    enum Intensity implements EnumSettingType<Intensity> {
+        OFF, LOW, HIGH;
+
+        @Override
+        public @NotNull String toString() {
+            return name().toLowerCase();
+        }
+
+        @Override
+        public @Nullable Intensity fromString(@Nullable String value) {
+            for (Intensity intensity : values()) {
+                if (intensity.toString().equals(value)) return intensity;
+            }
+
+            return null;
+        }
+    }
+}
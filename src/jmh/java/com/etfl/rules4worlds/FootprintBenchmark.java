@@ -0,0 +1,51 @@
+package com.etfl.rules4worlds;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by a {@link ConfigManager} with 10 000 settings, with and without a settings table,
+ * and reports it per setting. Runs single shot, since every invocation has to collect the garbage before and after building the tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class FootprintBenchmark {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean settingsTable;
+
+    @Benchmark
+    public ConfigTrees.Tree create(Footprint footprint) {
+        long before = usedHeap();
+        ConfigTrees.Tree tree = ConfigTrees.create(size, settingsTable);
+        long after = usedHeap();
+
+        footprint.bytesPerSetting = (double) (after - before) / size;
+        return tree;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Reports the heap retained by the tree, including its categories, divided by the number of settings in bytes.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double bytesPerSetting;
+    }
+}
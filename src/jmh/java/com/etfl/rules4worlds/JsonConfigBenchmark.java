@@ -0,0 +1,82 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.fileManagement.JsonConfigFileManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures getting the config from a {@link JsonConfigFileManager}, once while the file is unchanged
+ * and once after the file changed before every invocation, which reads, parses and validates it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonConfigBenchmark {
+
+    @Benchmark
+    public Map<String, Object> getConfigUnchanged(UnchangedFile file) {
+        return file.fileManager.getConfig();
+    }
+
+    @Benchmark
+    public Map<String, Object> getConfigChanged(ChangedFile file) {
+        return file.fileManager.getConfig();
+    }
+
+    @State(Scope.Benchmark)
+    public static class UnchangedFile {
+        @Param({"10", "1000", "100000"})
+        public int size;
+
+        Path directory;
+        Path path;
+        byte[] content;
+        JsonConfigFileManager fileManager;
+
+        @Setup
+        public void setup() throws IOException {
+            ConfigManager manager = ConfigTrees.create(size, false).manager();
+
+            directory = Files.createTempDirectory("rules4worlds-benchmark");
+            path = directory.resolve("benchmark.json");
+            fileManager = new JsonConfigFileManager(path, manager::validateOrSetDefault, manager::readJson);
+
+            fileManager.getConfig();
+            fileManager.flush();
+            content = Files.readAllBytes(path);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            fileManager.flush();
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ChangedFile extends UnchangedFile {
+        private byte[] changedContent;
+        private boolean changed = false;
+
+        @Setup
+        public void prepareChange() {
+            changedContent = Arrays.copyOf(content, content.length + 1);
+            changedContent[content.length] = '\n';
+        }
+
+        /**
+         * Rewrites the file with the same config but a different content hash, so that the file manager has to parse it again.
+         */
+        @Setup(Level.Invocation)
+        public void change() throws IOException {
+            changed = !changed;
+            Files.write(path, changed ? changedContent : content);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.etfl.rules4worlds;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures storing the values of all settings in NBT and reading them back, as done when the world is saved and loaded,
+ * in the named format and in the compact format, which is written from copies of the table's arrays if the settings are bound to a settings table.
+ * Also reports the size of the compressed data file together with the size of the same values in the named format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NbtBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    @Param({"false", "true"})
+    public boolean settingsTable;
+
+    private ConfigManager manager;
+    private NbtCompound nbt;
+    private long namedBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        manager = ConfigTrees.create(size, settingsTable).manager();
+        if (compact) manager.useCompactNbt();
+
+        nbt = new NbtCompound();
+        manager.toNbt(nbt);
+
+        NbtCompound named = new NbtCompound();
+        ConfigTrees.create(size, false).manager().toNbt(named);
+        namedBytes = compressedSize(named);
+    }
+
+    @Benchmark
+    public NbtCompound toNbt() {
+        NbtCompound nbt = new NbtCompound();
+        manager.toNbt(nbt);
+        return nbt;
+    }
+
+    @Benchmark
+    public void fromNbt() {
+        manager.fromNbt(nbt);
+    }
+
+    @Benchmark
+    public void save(FileSize fileSize) throws IOException {
+        fileSize.bytes = compressedSize(toNbt());
+        fileSize.namedBytes = namedBytes;
+    }
+
+    private static long compressedSize(@NotNull NbtCompound nbt) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NbtIo.writeCompressed(nbt, out);
+        return out.size();
+    }
+
+    /**
+     * Reports the size of the compressed data file and of the same values in the named format in bytes.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FileSize {
+        public long bytes;
+        public long namedBytes;
+    }
+}
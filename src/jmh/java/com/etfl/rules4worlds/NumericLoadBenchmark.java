@@ -0,0 +1,66 @@
+package com.etfl.rules4worlds;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a correct config from json, once by parsing it into a generic map and validating it afterwards
+ * and once by reading it in a single pass that parses numbers directly into the primitive types of the settings.
+ * Run with the gc profiler to compare the allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NumericLoadBenchmark {
+    /**
+     * Configured like the {@code Gson} of the json config file manager, which parses whole numbers as longs.
+     */
+    private static final Gson GSON = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+            .create();
+    private static final Type TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private ConfigManager manager;
+    private String json;
+
+    @Setup
+    public void setup() {
+        manager = ConfigTrees.create(size, false).manager();
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        manager.validateOrSetDefault(config);
+        json = GSON.toJson(config);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseAndValidate() {
+        Map<String, Object> config = GSON.fromJson(json, TYPE);
+        manager.validateOrSetDefault(config);
+        return config;
+    }
+
+    @Benchmark
+    public Map<String, Object> readTyped() throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (!manager.readJson(reader, config)) throw new IllegalStateException("The benchmark config is not valid");
+        }
+
+        return config;
+    }
+}
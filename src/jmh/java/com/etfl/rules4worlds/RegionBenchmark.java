@@ -0,0 +1,94 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.IntConfigSetting;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving a setting for block positions with region overrides, as done on the per-entity tick path,
+ * compared to reading the setting without regions. The regions are spread over 4096 x 4096 blocks around the origin
+ * and the positions are spread over the same area, so some of them are inside regions and most are not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RegionBenchmark {
+    private static final int AREA = 4096;
+    private static final int POSITIONS = 1024;
+
+    @Param({"0", "10000"})
+    public int regions;
+
+    private IntConfigSetting setting;
+    private RegionOverrides overrides;
+    private final RegistryKey<World> dimension = World.OVERWORLD;
+    private final BlockPos[] positions = new BlockPos[POSITIONS];
+
+    @Setup
+    public void setup() {
+        setting = new IntConfigSetting("maxPerChunk", IntegerArgumentType.integer(0, 1000), 70);
+
+        ConfigManager manager = new ConfigManager("benchmark").add(setting);
+        manager.initialize();
+        overrides = manager.regions();
+
+        Random random = new Random(42);
+        NbtList list = new NbtList();
+
+        for (int i = 0; i < regions; i++) {
+            int x = random.nextInt(AREA) - AREA / 2;
+            int y = random.nextInt(320) - 64;
+            int z = random.nextInt(AREA) - AREA / 2;
+
+            NbtCompound region = new NbtCompound();
+            NbtCompound values = new NbtCompound();
+            values.putInt("maxPerChunk", random.nextInt(1000));
+
+            region.putString("name", "region" + i);
+            region.putString("dimension", dimension.getValue().toString());
+            region.putIntArray("from", new int[]{x, y, z});
+            region.putIntArray("to", new int[]{x + random.nextInt(64), y + random.nextInt(64), z + random.nextInt(64)});
+            region.putInt("priority", random.nextInt(4));
+            region.put("values", values);
+            list.add(region);
+        }
+
+        // Loads the regions at once like a saved world, adding them one by one rebuilds the index every time
+        NbtCompound nbt = new NbtCompound();
+        manager.toNbt(nbt);
+        nbt.put("#regions", list);
+        manager.fromNbt(nbt);
+
+        for (int i = 0; i < POSITIONS; i++) {
+            positions[i] = new BlockPos(random.nextInt(AREA) - AREA / 2, random.nextInt(320) - 64, random.nextInt(AREA) - AREA / 2);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int setting() {
+        int sum = 0;
+
+        for (int i = 0; i < POSITIONS; i++) sum += setting.get();
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int resolve() {
+        int sum = 0;
+
+        for (BlockPos pos : positions) sum += overrides.get(setting, dimension, pos);
+
+        return sum;
+    }
+}
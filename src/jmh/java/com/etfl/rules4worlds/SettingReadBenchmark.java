@@ -0,0 +1,151 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading all settings of one type through their typed getters, through a {@link ConfigSnapshot}
+ * and, as a baseline, from plain fields. Also measures taking a snapshot, which only copies two arrays
+ * for the numeric and boolean settings if they are bound to a settings table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SettingReadBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean settingsTable;
+
+    private ConfigManager manager;
+    private IntConfigSetting[] ints;
+    private LongConfigSetting[] longs;
+    private FloatConfigSetting[] floats;
+    private DoubleConfigSetting[] doubles;
+    private BoolConfigSetting[] bools;
+    private EnumConfigSetting<?>[] enums;
+    private PlainInt[] plainInts;
+    private PlainLong[] plainLongs;
+    private PlainDouble[] plainDoubles;
+
+    @Setup
+    public void setup() {
+        ConfigTrees.Tree tree = ConfigTrees.create(size, settingsTable);
+
+        manager = tree.manager();
+        ints = tree.settings(IntConfigSetting.class).toArray(IntConfigSetting[]::new);
+        longs = tree.settings(LongConfigSetting.class).toArray(LongConfigSetting[]::new);
+        floats = tree.settings(FloatConfigSetting.class).toArray(FloatConfigSetting[]::new);
+        doubles = tree.settings(DoubleConfigSetting.class).toArray(DoubleConfigSetting[]::new);
+        bools = tree.settings(BoolConfigSetting.class).toArray(BoolConfigSetting[]::new);
+        enums = tree.settings(EnumConfigSetting.class).toArray(EnumConfigSetting<?>[]::new);
+
+        plainInts = new PlainInt[ints.length];
+        for (int i = 0; i < ints.length; i++) plainInts[i] = new PlainInt(ints[i].get());
+
+        plainLongs = new PlainLong[longs.length];
+        for (int i = 0; i < longs.length; i++) plainLongs[i] = new PlainLong(longs[i].get());
+
+        plainDoubles = new PlainDouble[doubles.length];
+        for (int i = 0; i < doubles.length; i++) plainDoubles[i] = new PlainDouble(doubles[i].get());
+    }
+
+    @Benchmark
+    public void readPlainInt(Blackhole blackhole) {
+        for (PlainInt field : plainInts) blackhole.consume(field.value);
+    }
+
+    @Benchmark
+    public void readPlainLong(Blackhole blackhole) {
+        for (PlainLong field : plainLongs) blackhole.consume(field.value);
+    }
+
+    @Benchmark
+    public void readPlainDouble(Blackhole blackhole) {
+        for (PlainDouble field : plainDoubles) blackhole.consume(field.value);
+    }
+
+    @Benchmark
+    public void readInt(Blackhole blackhole) {
+        for (IntConfigSetting setting : ints) blackhole.consume(setting.get());
+    }
+
+    @Benchmark
+    public void readLong(Blackhole blackhole) {
+        for (LongConfigSetting setting : longs) blackhole.consume(setting.get());
+    }
+
+    @Benchmark
+    public void readFloat(Blackhole blackhole) {
+        for (FloatConfigSetting setting : floats) blackhole.consume(setting.get());
+    }
+
+    @Benchmark
+    public void readDouble(Blackhole blackhole) {
+        for (DoubleConfigSetting setting : doubles) blackhole.consume(setting.get());
+    }
+
+    @Benchmark
+    public void readBool(Blackhole blackhole) {
+        for (BoolConfigSetting setting : bools) blackhole.consume(setting.get());
+    }
+
+    @Benchmark
+    public void readEnum(Blackhole blackhole) {
+        for (EnumConfigSetting<?> setting : enums) blackhole.consume(setting.get());
+    }
+
+    @Benchmark
+    public ConfigSnapshot takeSnapshot() {
+        return manager.captureSnapshot();
+    }
+
+    @Benchmark
+    public void readIntFromSnapshot(Blackhole blackhole) {
+        ConfigSnapshot snapshot = manager.snapshot();
+        for (IntConfigSetting setting : ints) blackhole.consume(snapshot.get(setting));
+    }
+
+    @Benchmark
+    public void readDoubleFromSnapshot(Blackhole blackhole) {
+        ConfigSnapshot snapshot = manager.snapshot();
+        for (DoubleConfigSetting setting : doubles) blackhole.consume(snapshot.get(setting));
+    }
+
+    /**
+     * A plain mutable field like the int settings used before their values were published with release semantics.
+     */
+    private static final class PlainInt {
+        private int value;
+
+        private PlainInt(int value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * A plain mutable field like the long settings used before their values were published with release semantics.
+     */
+    private static final class PlainLong {
+        private long value;
+
+        private PlainLong(long value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * A plain mutable field like the double settings used before their values were published with release semantics.
+     */
+    private static final class PlainDouble {
+        private double value;
+
+        private PlainDouble(double value) {
+            this.value = value;
+        }
+    }
+}
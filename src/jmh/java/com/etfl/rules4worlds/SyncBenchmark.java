@@ -0,0 +1,91 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.ConfigSetting;
+import com.etfl.rules4worlds.settings.IntConfigSetting;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures syncing the settings to a client over a local fake connection, where the payloads of the server side are applied
+ * directly to a {@link ClientMirror} built from a separate {@link RuleSync}, as on a client.
+ * Encodes and applies the full payload sent on join and the delta payload sent at the end of a tick in which some settings changed.
+ * Also reports the size of the payloads, which is the sync bandwidth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SyncBenchmark {
+    @Param({"1000"})
+    public int size;
+
+    @Param({"1", "10", "100"})
+    public int changed;
+
+    private RuleSync server;
+    private ClientMirror client;
+    private ConfigSnapshot before;
+    private ConfigSnapshot after;
+    private boolean flip = false;
+
+    @Setup
+    public void setup() {
+        ConfigTrees.Tree tree = ConfigTrees.create(size, false);
+        ConfigManager manager = tree.manager();
+
+        ConfigSetting[] settings = new ConfigSetting[size];
+        String[] paths = new String[size];
+
+        for (ConfigSetting setting : tree.settings()) {
+            settings[setting.getIndex()] = setting;
+            paths[setting.getIndex()] = manager.getPath(setting);
+        }
+
+        server = new RuleSync("benchmark", settings, paths, tree.settings());
+        client = new ClientMirror(new RuleSync("benchmark", settings, paths, tree.settings()));
+
+        before = manager.captureSnapshot();
+
+        List<IntConfigSetting> intSettings = tree.settings(IntConfigSetting.class);
+        for (IntConfigSetting setting : intSettings.subList(0, Math.min(changed, intSettings.size()))) {
+            setting.fromMap(Map.of(setting.getName(), (setting.get() + 1) % 1000));
+        }
+
+        after = manager.captureSnapshot();
+
+        server.reset(before);
+        client.apply(server.full(before));
+    }
+
+    @Benchmark
+    public boolean full(PayloadSize payloadSize) {
+        byte[] payload = server.full(before);
+        payloadSize.bytes = payload.length;
+
+        return client.apply(payload);
+    }
+
+    /**
+     * Alternates between the two snapshots, so that every delta contains the changed settings.
+     */
+    @Benchmark
+    public boolean delta(PayloadSize payloadSize) {
+        flip = !flip;
+
+        byte[] payload = server.delta(flip ? after : before);
+        payloadSize.bytes = payload.length;
+
+        return client.apply(payload);
+    }
+
+    /**
+     * Reports the size of the payload in bytes.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long bytes;
+    }
+}
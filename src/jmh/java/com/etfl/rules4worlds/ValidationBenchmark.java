@@ -0,0 +1,62 @@
+package com.etfl.rules4worlds;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures validating a parsed config file, once for a file that is already correct and once for a broken file that needs to be repaired completely.
+ * The file is parsed before every invocation, so only the validation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ValidationBenchmark {
+    /**
+     * Configured like the {@code Gson} of the json config file manager, which parses whole numbers as longs.
+     */
+    private static final Gson GSON = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+            .create();
+    private static final Type TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private ConfigManager manager;
+    private String correctJson;
+    private Map<String, Object> correctConfig;
+    private Map<String, Object> brokenConfig;
+
+    @Setup
+    public void setup() {
+        manager = ConfigTrees.create(size, false).manager();
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        manager.validateOrSetDefault(config);
+        correctJson = GSON.toJson(config);
+    }
+
+    @Setup(Level.Invocation)
+    public void parse() {
+        correctConfig = GSON.fromJson(correctJson, TYPE);
+        brokenConfig = GSON.fromJson("{}", TYPE);
+    }
+
+    @Benchmark
+    public boolean validateCorrect() {
+        return manager.validateOrSetDefault(correctConfig);
+    }
+
+    @Benchmark
+    public boolean validateBroken() {
+        return manager.validateOrSetDefault(brokenConfig);
+    }
+}
@@ -0,0 +1,123 @@
+package com.etfl.rules4worlds.settings;
+
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that readers on other threads never see torn or stale values of long and double settings while the server thread writes them.
+ * One thread writes an increasing count into the setting with the count in both halves of the raw bits,
+ * after writing the same count into a plain field. The readers report a torn read if the halves of a value differ
+ * and a stale read if the count goes backward or the plain field is behind the value they read,
+ * which would mean the value was not published with release semantics or not read with acquire semantics.
+ * Both counters should stay at 0, the throughput shows the cost of reading and writing under contention.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentReadBenchmark {
+    /**
+     * Copies a count into both halves of the raw bits of a value.
+     */
+    private static final long HALVES = 0x1_0000_0001L;
+
+    private LongConfigSetting longSetting;
+    private DoubleConfigSetting doubleSetting;
+
+    /**
+     * The last count of each setting, only used by the writer.
+     */
+    private long longCount;
+    private long doubleCount;
+
+    /**
+     * The last count of each setting, written with a plain write before the value.
+     */
+    private long longWritten;
+    private long doubleWritten;
+
+    /**
+     * Starts counting from 0 in every iteration, so that the count never exceeds the 32 bits of a half.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        longSetting = new LongConfigSetting("long", LongArgumentType.longArg(), 0, value -> true);
+        doubleSetting = new DoubleConfigSetting("double", DoubleArgumentType.doubleArg(), 0, value -> true);
+        longCount = doubleCount = 0;
+        longWritten = doubleWritten = 0;
+    }
+
+    @Benchmark
+    @Group("long")
+    @GroupThreads(1)
+    public void writeLong() {
+        long count = ++longCount;
+        longWritten = count;
+        longSetting.loadBits(count * HALVES);
+    }
+
+    @Benchmark
+    @Group("long")
+    @GroupThreads(3)
+    public void readLong(ReadErrors errors) {
+        long bits = longSetting.get();
+        errors.check(bits, longWritten);
+    }
+
+    @Benchmark
+    @Group("double")
+    @GroupThreads(1)
+    public void writeDouble() {
+        long count = ++doubleCount;
+        doubleWritten = count;
+        doubleSetting.loadBits(count * HALVES);
+    }
+
+    @Benchmark
+    @Group("double")
+    @GroupThreads(3)
+    public void readDouble(ReadErrors errors) {
+        long bits = Double.doubleToRawLongBits(doubleSetting.get());
+        errors.check(bits, doubleWritten);
+    }
+
+    /**
+     * Counts the torn and stale reads of a reader thread.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ReadErrors {
+        public long torn;
+        public long stale;
+
+        /**
+         * The count of the last value the thread read.
+         */
+        private long last;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            last = 0;
+        }
+
+        /**
+         * Checks a value read from a setting.
+         * @param bits the raw bits of the value
+         * @param written the plain field read after the value
+         */
+        void check(long bits, long written) {
+            long count = bits >>> 32;
+
+            if ((bits & 0xffff_ffffL) != count) {
+                torn++;
+                return;
+            }
+
+            if (count < last || written < count) stale++;
+
+            last = count;
+        }
+    }
+}
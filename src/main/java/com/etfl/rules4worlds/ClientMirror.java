@@ -0,0 +1,165 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A read-only mirror of the synced settings of a {@link ConfigManager} on the client, see {@link ConfigManager#sync(ConfigSetting...)}.
+ * Holds the values the server sent while the client is connected. For settings that are not synced, and before the server sent
+ * its values or if the server does not have the mod, the getters return the local value of the setting.
+ * The values are replaced on every payload, so reading them does neither lock nor allocate.
+ * Only settings of the {@code ConfigManager} that created the mirror can be read from it.
+ * @see ConfigManager#clientMirror()
+ */
+public final class ClientMirror {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Rules4Worlds");
+
+    /**
+     * The mirrors of all {@code ConfigManager}s with synced settings by their modID.
+     */
+    private static final Map<String, ClientMirror> MIRRORS = new ConcurrentHashMap<>();
+
+    private final RuleSync sync;
+
+    /**
+     * The received values by slot as raw bits, {@code null} if no full payload was received since the client connected.
+     */
+    private volatile long[] values = null;
+
+    /**
+     * Creates the mirror of the synced settings. Called when the {@code ConfigManager} is initialized.
+     * @param sync the sync of the {@code ConfigManager}
+     */
+    ClientMirror(@NotNull RuleSync sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * Checks if the values of the server were received.
+     * @return {@code true} if the mirror holds the values of the server, {@code false} otherwise
+     */
+    public boolean isSynced() {
+        return values != null;
+    }
+
+    /**
+     * Gets the value of the setting on the server.
+     * @param setting the setting to get the value of
+     * @return the value on the server or the local value if it was not received
+     */
+    public int get(@NotNull IntConfigSetting setting) {
+        long[] values = this.values;
+        int slot = sync.slot(setting);
+        return values != null && slot >= 0 ? (int) values[slot] : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting on the server.
+     * @param setting the setting to get the value of
+     * @return the value on the server or the local value if it was not received
+     */
+    public long get(@NotNull LongConfigSetting setting) {
+        long[] values = this.values;
+        int slot = sync.slot(setting);
+        return values != null && slot >= 0 ? values[slot] : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting on the server.
+     * @param setting the setting to get the value of
+     * @return the value on the server or the local value if it was not received
+     */
+    public float get(@NotNull FloatConfigSetting setting) {
+        long[] values = this.values;
+        int slot = sync.slot(setting);
+        return values != null && slot >= 0 ? Float.intBitsToFloat((int) values[slot]) : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting on the server.
+     * @param setting the setting to get the value of
+     * @return the value on the server or the local value if it was not received
+     */
+    public double get(@NotNull DoubleConfigSetting setting) {
+        long[] values = this.values;
+        int slot = sync.slot(setting);
+        return values != null && slot >= 0 ? Double.longBitsToDouble(values[slot]) : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting on the server.
+     * @param setting the setting to get the value of
+     * @return the value on the server or the local value if it was not received
+     */
+    public boolean get(@NotNull BoolConfigSetting setting) {
+        long[] values = this.values;
+        int slot = sync.slot(setting);
+        return values != null && slot >= 0 ? values[slot] != 0 : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting on the server.
+     * @param setting the setting to get the value of
+     * @return the value on the server or the local value if it was not received
+     * @param <T> the enum type of the setting
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Enum<T> & EnumSettingType<T>> @NotNull T get(@NotNull EnumConfigSetting<T> setting) {
+        long[] values = this.values;
+        int slot = sync.slot(setting);
+        return values != null && slot >= 0 ? (T) sync.constant(slot, values[slot]) : setting.get();
+    }
+
+    /**
+     * Applies a full or delta payload received from the server.
+     * Payloads for a different set of synced settings, for example from a server with another version of the mod, are ignored.
+     * @param data the payload
+     * @return {@code true} if the payload was applied, {@code false} otherwise
+     */
+    boolean apply(byte @NotNull [] data) {
+        long[] received = sync.apply(data, values);
+        if (received == null) return false;
+
+        values = received;
+        return true;
+    }
+
+    /**
+     * Forgets the received values. Called when the client disconnects.
+     */
+    void reset() {
+        values = null;
+    }
+
+    /**
+     * Registers the mirror of a {@code ConfigManager}, so that it receives the payloads of the {@code ConfigManager}.
+     * @param modID the modID of the {@code ConfigManager}
+     * @param mirror the mirror
+     */
+    static void register(@NotNull String modID, @NotNull ClientMirror mirror) {
+        MIRRORS.put(modID, mirror);
+    }
+
+    /**
+     * Applies a payload to the mirror of its {@code ConfigManager}. Called when the client received a payload.
+     * @param payload the payload
+     */
+    static void receive(@NotNull RuleSyncPayload payload) {
+        ClientMirror mirror = MIRRORS.get(payload.modID());
+
+        if (mirror != null && !mirror.apply(payload.data()))
+            LOGGER.warn("Ignoring synced rules of {}, the server uses different settings", payload.modID());
+    }
+
+    /**
+     * Forgets the received values of all mirrors. Called when the client disconnects.
+     */
+    static void resetAll() {
+        MIRRORS.values().forEach(ClientMirror::reset);
+    }
+}
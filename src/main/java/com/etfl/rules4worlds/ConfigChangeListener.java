@@ -0,0 +1,18 @@
+package com.etfl.rules4worlds;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A listener that is notified about all changes of the settings of a {@link ConfigManager} or a category during a tick.
+ * Called once at the end of every tick in which a setting changed, on the server thread.
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+    /**
+     * Called with the changes of the settings during the tick.
+     * @param changes the changes in the order the settings were added, never empty and not modifiable
+     */
+    void onChange(@NotNull List<SettingChange> changes);
+}
@@ -1,11 +1,18 @@
 package com.etfl.rules4worlds;
 
+import com.etfl.rules4worlds.settings.ConfigSetting;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.command.ServerCommandSource;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 public interface ConfigComponent {
@@ -38,12 +45,96 @@ public interface ConfigComponent {
      */
     boolean validateOrSetDefault(@NotNull Map<String, Object> map);
 
+    /**
+     * Reads the component's entry from a json config file and puts its value into the map if it is valid.
+     * Used to read the config file in a single pass, before falling back to {@link #validateOrSetDefault(Map)}.
+     * Components that do not support this return {@code false}, so the config file is always validated using the map.
+     * Numbers are parsed directly into the primitive type of the setting, so integers keep their full precision.
+     * The parsed values are still boxed when put into the map, which the config file manager keeps to write the file and to detect changes.
+     * @param reader the reader positioned at the value of the component's entry
+     * @param map the map to put the value into
+     * @return {@code true} if the value is valid, {@code false} if the config file needs to be repaired
+     * @throws IOException if the config file is not valid json
+     * @throws NumberFormatException if a number does not fit the type of its setting
+     */
+    default boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        return false;
+    }
+
+    /**
+     * Reads the entries of the components from a json object in a single pass and puts their values into the map.
+     * The object must contain exactly the entries of the components in their order.
+     * @param components the components whose entries the object contains
+     * @param reader the reader positioned at the start of the object
+     * @param map the map to put the values into
+     * @return {@code true} if the object is valid, {@code false} if the config file needs to be repaired
+     * @throws IOException if the config file is not valid json
+     */
+    static boolean readJsonObject(@NotNull List<ConfigComponent> components,
+                                  @NotNull JsonReader reader,
+                                  @NotNull Map<String, Object> map) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) return false;
+
+        reader.beginObject();
+
+        for (ConfigComponent component : components) {
+            if (!reader.hasNext() || !reader.nextName().equals(component.getName())) return false;
+            if (!component.readJson(reader, map)) return false;
+        }
+
+        if (reader.hasNext()) return false;
+
+        reader.endObject();
+        return true;
+    }
+
     /**
      * Sets the Component's value from the given map.
      * @param map the map to set the value from
      */
     void fromMap(@NotNull Map<String, Object> map);
 
+    /**
+     * Sets the Component's value from the new map if its entry differs from the one in the old map.
+     * Used to apply a reloaded config without touching the components that did not change.
+     * @param oldMap the map the component's value was last set from
+     * @param newMap the map to set the value from
+     * @return {@code true} if the entry changed and the value was set, {@code false} otherwise
+     */
+    default boolean applyChanges(@NotNull Map<String, Object> oldMap, @NotNull Map<String, Object> newMap) {
+        if (Objects.equals(oldMap.get(getName()), newMap.get(getName()))) return false;
+
+        fromMap(newMap);
+        return true;
+    }
+
+    /**
+     * Passes all direct and indirect settings of the component together with their full path to the consumer in the order they were added.
+     * The path consists of the names of the categories and the setting separated by dots, for example {@code mobs.spawning.maxPerChunk}.
+     * A setting passes only itself. The default implementation passes nothing, so the settings of the component are not indexed
+     * and can not be found by their path, snapshotted or listened to.
+     * @param parentPath the path of the parent category or an empty string if the component is added directly to the configManager
+     * @param consumer the consumer to pass the paths and settings to
+     */
+    default void forEachSetting(@NotNull String parentPath, @NotNull BiConsumer<String, ConfigSetting> consumer) {}
+
+    /**
+     * Appends the name of a component to the path of its parent.
+     * @param parentPath the path of the parent or an empty string if there is no parent category
+     * @param name the name of the component
+     * @return the path of the component
+     */
+    static @NotNull String childPath(@NotNull String parentPath, @NotNull String name) {
+        return parentPath.isEmpty() ? name : parentPath + "." + name;
+    }
+
+    /**
+     * Notifies the listeners of the component about the changes of its settings during a tick.
+     * Should only be called by the parent category or configManager. Changes of the settings themselves are dispatched by the configManager.
+     * @param changes the changes of all settings of the configManager during the tick
+     */
+    default void dispatchChanges(@NotNull List<SettingChange> changes) {}
+
     /**
      * Sets the markDirty runnable for the component.
      * Should only be called by the parent category or configManager.
@@ -0,0 +1,254 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.ConfigSetting;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtSizeTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only journal of the changes of the settings of a world, stored next to the data file of the {@link ServerStateManager}.
+ * Each change is appended as a small record containing the path of the setting and its new value,
+ * so that a change only costs a write proportional to its size instead of rewriting the whole data file.
+ * <p>
+ * The journal is compacted by saving the data file and starting a new journal.
+ * Until the data file is written, the previous journal is kept as {@code .old} file, so that no change is lost if the game crashes in between.
+ * Each record has a checksum, so a record that was only partially written during a crash ends the replay instead of corrupting the values.
+ * The records are encoded on the server thread and written to the file in the background by the {@link ServerStateManager},
+ * which writes them in order with the saves. {@link #replay(Function)}, {@link #encode(List, Function)}, {@link #records()}
+ * and {@link #resetRecords()} should only be called on the server thread, the other methods must not be called concurrently with each other.
+ */
+class ConfigJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Rules4Worlds");
+
+    private final Path path;
+    private final Path oldPath;
+
+    /**
+     * The stream records are appended to, {@code null} until the first record is appended after opening or rotating.
+     */
+    private OutputStream out = null;
+
+    /**
+     * The number of records encoded since the journal was replayed or the last compaction was started. Only used on the server thread.
+     */
+    private int records = 0;
+
+    /**
+     * Creates a new {@code ConfigJournal} for the journal file at the given path. Does not read or create the file.
+     * @param path the path of the journal file
+     */
+    ConfigJournal(@NotNull Path path) {
+        this.path = path;
+        this.oldPath = path.resolveSibling(path.getFileName() + ".old");
+    }
+
+    /**
+     * Applies the records of the previous and the current journal to the settings, without marking them dirty.
+     * Records of settings that no longer exist are skipped. Each journal is replayed up to its first damaged record.
+     * @param settingsByPath gets a setting by its full path, returns {@code null} if there is none
+     * @return the number of applied records
+     */
+    int replay(@NotNull Function<String, @Nullable ConfigSetting> settingsByPath) {
+        int applied = replay(oldPath, settingsByPath);
+        int current = replay(path, settingsByPath);
+
+        records = current;
+        return applied + current;
+    }
+
+    /**
+     * Encodes a record for each change with the current value of its setting. Should only be called on the server thread.
+     * @param changes the changes to encode
+     * @param pathOf gets the full path of a setting
+     * @return the encoded records, which are appended with {@link #write(byte[])}
+     */
+    byte @NotNull [] encode(@NotNull List<SettingChange> changes, @NotNull Function<ConfigSetting, String> pathOf) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (SettingChange change : changes) {
+                writeRecord(out, pathOf.apply(change.setting()), change.setting());
+                records++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Appends encoded records to the current journal at once. Can be called on any thread.
+     * @param encoded the records encoded by {@link #encode(List, Function)}
+     */
+    void write(byte @NotNull [] encoded) {
+        try {
+            if (out == null) out = new FileOutputStream(path.toFile(), true);
+
+            out.write(encoded);
+            out.flush();
+        } catch (IOException e) {
+            LOGGER.error("Failed to append changes to journal {}", path, e);
+        }
+    }
+
+    /**
+     * Gets the number of records encoded since the journal was replayed or the last compaction was started.
+     * @return the number of records
+     */
+    int records() {
+        return records;
+    }
+
+    /**
+     * Resets the number of records when a compaction is started. Should only be called on the server thread.
+     */
+    void resetRecords() {
+        records = 0;
+    }
+
+    /**
+     * Checks if a compaction was started but not finished yet.
+     * @return {@code true} if the previous journal still exists, {@code false} otherwise
+     */
+    boolean isCompacting() {
+        return Files.exists(oldPath);
+    }
+
+    /**
+     * Starts a compaction by moving the current journal aside and starting a new one. Can be called on any thread.
+     * Should be called right before the data file is saved with all current values.
+     * Does nothing if the previous compaction was not finished, so that its journal is not overwritten.
+     */
+    void rotate() {
+        if (isCompacting()) return;
+
+        close();
+
+        try {
+            Files.move(path, oldPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException e) {
+            LOGGER.error("Failed to rotate journal {}", path, e);
+        }
+    }
+
+    /**
+     * Finishes a compaction by deleting the previous journal. Should be called after the data file was written. Can be called on any thread.
+     */
+    void finishCompaction() {
+        try {
+            Files.deleteIfExists(oldPath);
+        } catch (IOException e) {
+            LOGGER.error("Failed to delete compacted journal {}", oldPath, e);
+        }
+    }
+
+    /**
+     * Closes the current journal file. Further records are appended to it again. Can be called on any thread.
+     */
+    void close() {
+        if (out == null) return;
+
+        try {
+            out.close();
+        } catch (IOException e) {
+            LOGGER.error("Failed to close journal {}", path, e);
+        }
+
+        out = null;
+    }
+
+    /**
+     * Writes a record consisting of its length, the path and the value of the setting as NBT and the checksum of both.
+     */
+    private static void writeRecord(@NotNull DataOutputStream out, @NotNull String path, @NotNull ConfigSetting setting) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream payload = new DataOutputStream(bytes)) {
+            NbtCompound nbt = new NbtCompound();
+            setting.toNbt(nbt);
+
+            payload.writeUTF(path);
+            NbtIo.write(nbt, payload);
+        }
+
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        out.writeInt((int) checksum(bytes.toByteArray()));
+    }
+
+    private static int replay(@NotNull Path path, @NotNull Function<String, @Nullable ConfigSetting> settingsByPath) {
+        byte[] content;
+
+        try {
+            content = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            LOGGER.error("Failed to read journal {}", path, e);
+            return 0;
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+        int applied = 0;
+        int validLength = 0;
+
+        try {
+            while (in.available() > 0) {
+                int length = in.readInt();
+                if (length < 0 || length > in.available()) break;
+
+                byte[] payload = in.readNBytes(length);
+                if ((int) checksum(payload) != in.readInt()) break;
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                ConfigSetting setting = settingsByPath.apply(record.readUTF());
+                NbtCompound nbt = NbtIo.read(record, NbtSizeTracker.ofUnlimitedBytes());
+
+                if (setting != null) setting.fromNbt(nbt);
+                applied++;
+                validLength = content.length - in.available();
+            }
+        } catch (IOException ignored) {
+        }
+
+        if (validLength < content.length) truncate(path, validLength);
+
+        return applied;
+    }
+
+    /**
+     * Removes a damaged record from the end of a journal, so that new records are not appended after it.
+     */
+    private static void truncate(@NotNull Path path, long length) {
+        LOGGER.warn("Journal {} ends with a damaged record, which is removed", path);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        } catch (IOException e) {
+            LOGGER.error("Failed to remove damaged record from journal {}", path, e);
+        }
+    }
+
+    private static long checksum(byte @NotNull [] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
@@ -2,18 +2,40 @@ package com.etfl.rules4worlds;
 
 import com.etfl.rules4worlds.fileManagement.ConfigFactory;
 import com.etfl.rules4worlds.fileManagement.ConfigFileManager;
+import com.etfl.rules4worlds.settings.CompactNbt;
+import com.etfl.rules4worlds.settings.ConfigSetting;
+import com.etfl.rules4worlds.settings.RegistrySettings;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.command.CommandSource;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.world.World;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
+import static net.minecraft.server.command.CommandManager.argument;
 import static net.minecraft.server.command.CommandManager.literal;
+import static net.minecraft.util.Formatting.WHITE;
 
 /**
  * The {@code ConfigManager} is the main class for the config library.
@@ -26,6 +48,138 @@ public class ConfigManager {
     private final List<ConfigComponent> components = new ArrayList<>();
     private final ConfigFileManager configFileManager;
 
+    /**
+     * All direct and indirect settings by their index. Filled when the {@code ConfigManager} is initialized.
+     */
+    private ConfigSetting[] settings = new ConfigSetting[0];
+
+    /**
+     * All direct and indirect settings by their full path. Filled when the {@code ConfigManager} is initialized.
+     */
+    private Map<String, ConfigSetting> settingsByPath = Map.of();
+
+    /**
+     * The indices of all direct and indirect settings by identity, also of settings that do not store their index themselves.
+     * Filled when the {@code ConfigManager} is initialized.
+     */
+    private Map<ConfigSetting, Integer> indices = Map.of();
+
+    /**
+     * Whether the values of the settings are packed into a {@link SettingsTable}.
+     */
+    private boolean useSettingsTable = false;
+
+    /**
+     * The table the values of the settings are packed into, {@code null} if no table is used.
+     */
+    private SettingsTable settingsTable = null;
+
+    /**
+     * Whether the values of the settings are saved in the {@link CompactNbt} format.
+     */
+    private boolean useCompactNbt = false;
+
+    /**
+     * The compact NBT format for the settings. Created for all settings when the {@code ConfigManager} is initialized,
+     * so that saved data in the compact format can always be read.
+     */
+    private CompactNbt compactNbt;
+
+    /**
+     * The full paths of all direct and indirect settings by their index. Filled when the {@code ConfigManager} is initialized.
+     */
+    private String[] paths = new String[0];
+
+    /**
+     * The region overrides of the settings. Empty until the {@code ConfigManager} is initialized.
+     */
+    private RegionOverrides regions;
+
+    /**
+     * The dimension overrides of the settings. Empty until the {@code ConfigManager} is initialized.
+     */
+    private DimensionOverrides dimensions;
+
+    /**
+     * The player overrides of the settings. Empty until the {@code ConfigManager} is initialized.
+     */
+    private PlayerOverrides players;
+
+    /**
+     * The settings whose values are synced to the clients, in the order they were marked.
+     */
+    private final List<ConfigSetting> syncedSettings = new ArrayList<>();
+
+    /**
+     * The sync of the marked settings to the clients. Syncs no setting until the {@code ConfigManager} is initialized.
+     */
+    private RuleSync sync;
+
+    /**
+     * The mirror of the synced settings on the client. Holds no setting until the {@code ConfigManager} is initialized.
+     */
+    private ClientMirror clientMirror;
+
+    /**
+     * Whether changes of the settings are appended to a journal instead of rewriting the saved data.
+     */
+    private boolean useJournal = false;
+
+    /**
+     * The latest published snapshot of the settings.
+     */
+    private volatile ConfigSnapshot snapshot = null;
+
+    /**
+     * Whether a setting changed since the latest snapshot was published.
+     */
+    private volatile boolean snapshotStale = false;
+
+    /**
+     * The snapshot the listeners were last notified up to.
+     */
+    private ConfigSnapshot dispatchedSnapshot = null;
+
+    /**
+     * The listeners that are notified about changes of any setting.
+     */
+    private final List<ConfigChangeListener> listeners = new ArrayList<>();
+
+    /**
+     * Whether changes to the config file are applied while the server is running.
+     */
+    private boolean hotReload = false;
+
+    /**
+     * The config the settings were last set from.
+     */
+    private Map<String, Object> appliedConfig = Map.of();
+
+    /**
+     * A config reloaded by the config file watcher that has not been applied yet, {@code null} if there is none.
+     */
+    private final AtomicReference<Map<String, Object>> reloadedConfig = new AtomicReference<>();
+
+    /**
+     * Whether the values of a transaction are being set, during which the settings do not mark the state dirty themselves.
+     */
+    private boolean applyingTransaction = false;
+
+    /**
+     * Whether a setting changed while the values of the current transaction were set.
+     */
+    private boolean transactionChanged = false;
+
+    /**
+     * The running server, {@code null} if no server is running.
+     */
+    private MinecraftServer server = null;
+
+    /**
+     * The state of the running server, {@code null} if no server is running.
+     */
+    private ServerStateManager serverState = null;
+
     /**
      * Creates a new {@code ConfigManager} with the provided {@code modID}.
      * Uses the {@code modID} as {@code baseCommand} for the config.
@@ -80,9 +234,85 @@ public class ConfigManager {
     public ConfigManager(@NotNull @NotBlank final String modID, @NotNull @NotBlank final String baseCommand, @Nullable ConfigFactory configFactory) {
         this.modID = modID;
         this.baseCommand = baseCommand;
-        this.configFileManager = configFactory != null ? configFactory.create(this::validateOrSetDefault) : null;
+        this.configFileManager = configFactory != null ? configFactory.create(this::validateOrSetDefault, this::readJson, this::writeSchema) : null;
+
+        // Replaced when the settings are indexed, so that the lifecycle events also work for a ConfigManager that is never initialized.
+        this.compactNbt = new CompactNbt(settings, paths);
+        this.regions = new RegionOverrides(settings, paths, settingsByPath, this::onOverridesChanged);
+        this.dimensions = new DimensionOverrides(settings, paths, settingsByPath, this::onOverridesChanged);
+        this.players = new PlayerOverrides(settings, paths, settingsByPath);
+        this.sync = new RuleSync(modID, settings, paths, syncedSettings);
+        this.clientMirror = new ClientMirror(sync);
 
         ServerLifecycleEvents.SERVER_STARTED.register(this::onServerStart);
+        ServerLifecycleEvents.SERVER_STOPPING.register(this::onServerStopping);
+        ServerLifecycleEvents.SERVER_STOPPED.register(this::onServerStop);
+        ServerTickEvents.END_SERVER_TICK.register(this::onEndTick);
+    }
+
+    /**
+     * Enables hot reloading of the config file.
+     * While the server is running, the config file is watched and changed values are applied to the settings at the end of the next tick.
+     * Only the settings whose value in the config file changed are set. Does nothing if the {@code ConfigManager} has no config file.
+     * <b>Should only be called during initialization of the mod.</b>
+     * @return the ConfigManager for chaining
+     */
+    public ConfigManager enableHotReload() {
+        hotReload = true;
+
+        return this;
+    }
+
+    /**
+     * Packs the values of all int, long, float, double and boolean settings into a {@link SettingsTable} when the {@code ConfigManager} is initialized.
+     * The bound settings then store their values only in the table, so taking snapshots and saving in the {@link CompactNbt} format
+     * only copy two arrays instead of reading every setting. The table adds one {@code long} per setting to the memory of the settings.
+     * <b>Should only be called during initialization of the mod, before {@link #initialize()}.</b>
+     * @return the ConfigManager for chaining
+     */
+    public ConfigManager useSettingsTable() {
+        useSettingsTable = true;
+
+        return this;
+    }
+
+    /**
+     * Saves the values of the settings in the {@link CompactNbt} format, which packs the values by type instead of storing one named tag per setting.
+     * Saved data in the previous format is still read and replaced with the compact format on the next save.
+     * <b>Should only be called during initialization of the mod.</b>
+     * @return the ConfigManager for chaining
+     */
+    public ConfigManager useCompactNbt() {
+        useCompactNbt = true;
+
+        return this;
+    }
+
+    /**
+     * Appends every change of a setting to a journal next to the saved data of the world, instead of rewriting all values on the next save.
+     * The journal is replayed when the world is loaded and compacted into the saved data once it grew long or when the server stops.
+     * <b>Should only be called during initialization of the mod.</b>
+     * @return the ConfigManager for chaining
+     */
+    public ConfigManager useJournal() {
+        useJournal = true;
+
+        return this;
+    }
+
+    /**
+     * Syncs the values of the settings to the clients that have the mod installed, so that client-side code can read them
+     * through the {@link #clientMirror()}. Joining players receive the values of all synced settings,
+     * afterward the changed settings are sent once at the end of every tick in which one changed.
+     * Int, long, float, double, boolean and enum settings can be synced.
+     * <b>Should only be called during initialization of the mod, before {@link #initialize()}.</b>
+     * @param settings the direct or indirect settings of this {@code ConfigManager} to sync
+     * @return the ConfigManager for chaining
+     */
+    public ConfigManager sync(@NotNull ConfigSetting... settings) {
+        syncedSettings.addAll(List.of(settings));
+
+        return this;
     }
 
     /**
@@ -93,17 +323,232 @@ public class ConfigManager {
      */
     private void onServerStart(@NotNull MinecraftServer server) {
         resetSettings();
+        regions.clear();
+        dimensions.clear();
+        dimensions.assignSlots(server);
+        players.start(server.getSavePath(WorldSavePath.ROOT).resolve("data").resolve(modID + "_players"), server);
+
+        this.server = server;
+        serverState = ServerStateManager.getServerState(server, this);
+
+        setMarkDirtyRunnable(this::onSettingChanged);
+        publishSnapshot();
+        dispatchedSnapshot = snapshot;
+        sync.reset(snapshot);
+
+        if (hotReload && configFileManager != null) configFileManager.startWatching(reloadedConfig::set);
+    }
+
+    /**
+     * Called when the server begins to stop, before the world is saved for the last time.
+     * Makes that save compact the journal.
+     * @param server the server that is stopping
+     */
+    private void onServerStopping(@NotNull MinecraftServer server) {
+        if (serverState != null) serverState.compactOnNextSave();
+    }
+
+    /**
+     * Called when the server stops.
+     * Waits for pending writes of the saved data and the config file, so that they are not lost when the game exits.
+     * @param server the server that stopped
+     */
+    private void onServerStop(@NotNull MinecraftServer server) {
+        if (serverState != null) serverState.close();
+        players.close();
+
+        this.server = null;
+        serverState = null;
+        reloadedConfig.set(null);
+        regions.clear();
+        dimensions.clear();
 
-        var state = ServerStateManager.getServerState(server, this);
+        if (configFileManager == null) return;
 
-        setMarkDirtyRunnable(state::markDirty);
+        configFileManager.stopWatching();
+        configFileManager.flush();
+    }
+
+    /**
+     * Called at the end of every server tick.
+     * Applies the changes of a reloaded config file if there are any, publishes a new snapshot if a setting changed
+     * and notifies the listeners about all changes during the tick.
+     * @param server the server that ticked
+     */
+    private void onEndTick(@NotNull MinecraftServer server) {
+        Map<String, Object> config = reloadedConfig.getAndSet(null);
+
+        if (config != null) applyConfigChanges(config);
+
+        if (snapshotStale) publishSnapshot();
+
+        if (snapshot != dispatchedSnapshot) dispatchChanges();
+
+        sync.tick(server, snapshot);
+    }
+
+    /**
+     * Called when a player joined. Loads the overrides of the player and sends it the values of the synced settings.
+     * @param player the player that joined
+     */
+    private void onPlayerJoin(@NotNull ServerPlayerEntity player) {
+        players.onJoin(player.getUuid());
+        sync.sendFull(player, snapshot());
+    }
+
+    /**
+     * Notifies the listeners of the settings, the categories and the {@code ConfigManager} about the changes since the last dispatch.
+     * Settings that changed multiple times are only reported once.
+     */
+    private void dispatchChanges() {
+        ConfigSnapshot current = snapshot;
+        List<SettingChange> changes = current.changesSince(dispatchedSnapshot, settings);
+        dispatchedSnapshot = current;
+
+        if (changes.isEmpty()) return;
+
+        if (serverState != null) serverState.journal(changes);
+        changes.forEach(change -> change.setting().notifyListeners(change.oldValue(), change.newValue()));
+        listeners.forEach(listener -> listener.onChange(changes));
+        components.forEach(component -> component.dispatchChanges(changes));
+    }
+
+    /**
+     * Adds a listener that is notified at the end of every tick in which a setting changed.
+     * Listeners are not notified when the settings are loaded on server start.
+     * @param listener the listener to add
+     * @return the ConfigManager for chaining
+     */
+    public ConfigManager addListener(@NotNull ConfigChangeListener listener) {
+        listeners.add(listener);
+
+        return this;
+    }
+
+    /**
+     * Called by the settings when their value changed.
+     * Notifies the server state and marks the snapshot stale, unless the values of a transaction are being set.
+     */
+    private void onSettingChanged() {
+        if (applyingTransaction) {
+            transactionChanged = true;
+            return;
+        }
+
+        if (serverState != null) serverState.onSettingChanged();
+        snapshotStale = true;
+    }
+
+    /**
+     * Called when a region, one of its overrides or a dimension override changed. Marks the server state dirty, so that the overrides are saved with the world.
+     */
+    private void onOverridesChanged() {
+        if (serverState != null) serverState.markDirty();
+    }
+
+    /**
+     * Gets the region overrides of the settings, which change the values of settings inside regions of a world.
+     * <b>Should only be called after the {@code ConfigManager} was initialized.</b>
+     * @return the region overrides
+     */
+    public @NotNull RegionOverrides regions() {
+        return regions;
+    }
+
+    /**
+     * Gets the dimension overrides of the settings, which change the values of settings in single dimensions.
+     * <b>Should only be called after the {@code ConfigManager} was initialized.</b>
+     * @return the dimension overrides
+     */
+    public @NotNull DimensionOverrides dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Gets the player overrides of the settings, which change the values of settings for single players.
+     * <b>Should only be called after the {@code ConfigManager} was initialized.</b>
+     * @return the player overrides
+     */
+    public @NotNull PlayerOverrides players() {
+        return players;
+    }
+
+    /**
+     * Gets the mirror of the synced settings on the client, which holds the values of the server the client is connected to.
+     * <b>Should only be called after the {@code ConfigManager} was initialized.</b>
+     * @return the client mirror
+     * @see #sync(ConfigSetting...)
+     */
+    public @NotNull ClientMirror clientMirror() {
+        return clientMirror;
+    }
+
+    /**
+     * Starts a transaction, which stages changes of many settings and sets them together when it is committed.
+     * The saved data is then marked dirty once, readers of the {@link #snapshot()} see all changes at once
+     * and the listeners are notified about all changes together.
+     * The settings are still set one after another, so other threads reading the getters of the settings or the static fields
+     * mirrored by generated rule categories can see some changes before others. Read a snapshot to see all changes at once.
+     * <b>Should only be called on the server thread after the {@code ConfigManager} was initialized.</b>
+     * @return a new empty transaction
+     */
+    public @NotNull ConfigTransaction transaction() {
+        return new ConfigTransaction(this);
+    }
+
+    /**
+     * Sets the values of a committed transaction. Marks the state dirty once and publishes a snapshot containing all changes.
+     * Should only be called on the server thread.
+     * @param values the validated values in the same form as in the config file by setting
+     */
+    void apply(@NotNull Map<ConfigSetting, Object> values) {
+        applyingTransaction = true;
+        transactionChanged = false;
+
+        try {
+            values.forEach((setting, value) -> setting.fromMap(Map.of(setting.getName(), value)));
+        } finally {
+            applyingTransaction = false;
+        }
+
+        if (!transactionChanged) return;
+
+        onSettingChanged();
+        publishSnapshot();
+    }
+
+    /**
+     * Gets an immutable snapshot of the values of all settings.
+     * The snapshot is only rebuilt after a setting changed, so obtaining it is cheap.
+     * On the server thread it contains all changes made so far, on other threads it contains the changes up to the end of the last tick.
+     * <b>Should only be called after the {@code ConfigManager} was initialized.</b>
+     * @return the snapshot of the settings
+     */
+    public @NotNull ConfigSnapshot snapshot() {
+        MinecraftServer server = this.server;
+
+        if (snapshotStale && server != null && server.isOnThread()) publishSnapshot();
+
+        return snapshot;
+    }
+
+    /**
+     * Takes a new snapshot of the settings and publishes it. Should only be called on the server thread.
+     */
+    private void publishSnapshot() {
+        snapshotStale = false;
+
+        snapshot = ConfigSnapshot.capture(settings, settingsTable);
     }
 
     /**
      * Initializes the ConfigManager.
      */
     public void initialize() {
+        indexSettings();
         registerCommands();
+        registerConnectionEvents();
+        registerTagEvents();
 
         if(configFileManager == null) {
             setDefaultSupplier(Map::of);
@@ -115,6 +560,79 @@ public class ConfigManager {
         configFileManager.getConfig();
     }
 
+    /**
+     * Assigns an index to all direct and indirect settings, indexes them by their full path, binds them to the settings table if one is used,
+     * creates the compact NBT format, the region, dimension and player overrides and the sync of the marked settings and takes the first snapshot.
+     */
+    private void indexSettings() {
+        List<ConfigSetting> settings = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        Map<String, ConfigSetting> settingsByPath = new HashMap<>();
+        Map<ConfigSetting, Integer> indices = new IdentityHashMap<>();
+
+        components.forEach(component -> component.forEachSetting("", (path, setting) -> {
+            if (settingsByPath.putIfAbsent(path, setting) != null)
+                throw new IllegalStateException("Duplicate setting " + path + " in config " + modID);
+
+            indices.put(setting, settings.size());
+            setting.setIndex(settings.size());
+            settings.add(setting);
+            paths.add(path);
+        }));
+
+        this.settings = settings.toArray(ConfigSetting[]::new);
+        this.settingsByPath = settingsByPath;
+        this.indices = indices;
+        this.paths = paths.toArray(String[]::new);
+
+        if (useSettingsTable) settingsTable = new SettingsTable(this.settings);
+        compactNbt = new CompactNbt(this.settings, this.paths);
+        regions = new RegionOverrides(this.settings, this.paths, settingsByPath, this::onOverridesChanged);
+        dimensions = new DimensionOverrides(this.settings, this.paths, settingsByPath, this::onOverridesChanged);
+        players = new PlayerOverrides(this.settings, this.paths, settingsByPath);
+        sync = new RuleSync(modID, this.settings, this.paths, syncedSettings);
+        clientMirror = new ClientMirror(sync);
+
+        if (!sync.isEmpty()) {
+            RuleSyncPayload.register();
+            ClientMirror.register(modID, clientMirror);
+        }
+
+        publishSnapshot();
+    }
+
+    /**
+     * Registers the handlers of joining and leaving players, which use the player overrides and the sync created when the settings are indexed.
+     */
+    private void registerConnectionEvents() {
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> onPlayerJoin(handler.getPlayer()));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> players.onLeave(handler.getPlayer().getUuid()));
+    }
+
+    /**
+     * Registers one handler that resolves the registry settings again whenever the server loads its tags.
+     */
+    private void registerTagEvents() {
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+            if (!client) RegistrySettings.onTagsLoaded(settings);
+        });
+    }
+
+    /**
+     * Gets a direct or indirect setting by its full path, for example {@code mobs.spawning.maxPerChunk}.
+     * The path consists of the names of the categories and the setting separated by dots.
+     * <b>Should only be called after the {@code ConfigManager} was initialized.</b>
+     * @param path the full path of the setting
+     * @param type the class of the setting
+     * @return the setting or {@code null} if there is no setting of the given type with the given path
+     * @param <T> the type of the setting
+     */
+    public <T extends ConfigSetting> @Nullable T getSetting(@NotNull String path, @NotNull Class<T> type) {
+        ConfigSetting setting = settingsByPath.get(path);
+
+        return type.isInstance(setting) ? type.cast(setting) : null;
+    }
+
     /**
      * Adds the markDirty runnable to the components.
      * @param runnable the runnable to add
@@ -137,6 +655,17 @@ public class ConfigManager {
     private void resetSettings() {
         Map<String, Object> config = configFileManager != null ? configFileManager.getConfig() : Map.of();
         components.forEach(components -> components.fromMap(config));
+        appliedConfig = config;
+    }
+
+    /**
+     * Sets only the settings whose value differs between the config the settings were last set from and the provided config.
+     * @param config the reloaded config
+     */
+    private void applyConfigChanges(@NotNull Map<String, Object> config) {
+        Map<String, Object> previous = appliedConfig;
+        components.forEach(component -> component.applyChanges(previous, config));
+        appliedConfig = config;
     }
 
     /**
@@ -144,7 +673,7 @@ public class ConfigManager {
      * If the order is incorrect, the method corrects it.
      * @param map the map to validate
      */
-    private boolean validateOrSetDefault(@NotNull Map<String, Object> map) {
+    boolean validateOrSetDefault(@NotNull Map<String, Object> map) {
         boolean changed = false;
 
         for (ConfigComponent component : components) {
@@ -156,6 +685,25 @@ public class ConfigManager {
         return changed;
     }
 
+    /**
+     * Puts the constraints of all direct and indirect settings that are not part of the default config into the map by their full path.
+     * @param schema the map to put the constraints into
+     * @see ConfigSetting#getSchema()
+     */
+    void writeSchema(@NotNull Map<String, Object> schema) {
+        components.forEach(component -> component.forEachSetting("", (path, setting) -> schema.put(path, setting.getSchema())));
+    }
+
+    /**
+     * Reads and validates the config file in a single pass and puts the values into the map.
+     * @param reader the reader positioned at the start of the config file
+     * @param map the map to put the values into
+     * @return {@code true} if the config file is valid, {@code false} if it needs to be repaired
+     */
+    boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        return ConfigComponent.readJsonObject(components, reader, map) && reader.peek() == JsonToken.END_DOCUMENT;
+    }
+
     /**
      * Validates the order of the map.
      * Only works if the map is a LinkedHashMap.
@@ -179,6 +727,9 @@ public class ConfigManager {
     private void registerCommands() {
         var baseCommand = literal(this.baseCommand);
         components.forEach(component -> component.initialize(baseCommand));
+        regions.initialize(baseCommand);
+        dimensions.initialize(baseCommand);
+        players.initialize(baseCommand);
 
         baseCommand.then(literal("reset")
                 .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
@@ -187,11 +738,75 @@ public class ConfigManager {
                     return 15;
                 }));
 
+        baseCommand.then(literal("transaction")
+                .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                .then(argument("changes", StringArgumentType.greedyString())
+                        .suggests((context, builder) -> {
+                            String remaining = builder.getRemaining();
+                            SuggestionsBuilder change = builder.createOffset(builder.getStart() + remaining.lastIndexOf(' ') + 1);
+                            return CommandSource.suggestMatching(Arrays.stream(paths).map(path -> path + "="), change);
+                        })
+                        .executes(this::runTransaction)));
+
         CommandRegistrationCallback.EVENT.register(
                 (dispatcher, registryAccess, environment)
                         -> dispatcher.register(baseCommand));
     }
 
+    /**
+     * Called when the command to set many settings together is executed.
+     * The changes are separated by spaces and each change is the full path of a setting and its value separated by {@code =},
+     * for example {@code mobs.spawning.maxPerChunk=50 mobs.griefing=false}. Values are written as in the config file without spaces.
+     * @param context the command context
+     * @return 15 if the settings were set and 0 otherwise
+     */
+    private int runTransaction(CommandContext<ServerCommandSource> context) {
+        final String changes = StringArgumentType.getString(context, "changes");
+        ConfigTransaction transaction = transaction();
+        List<String> invalid = new ArrayList<>();
+
+        for (String change : changes.trim().split("\\s+")) {
+            int separator = change.indexOf('=');
+            ConfigSetting setting = separator > 0 ? settingsByPath.get(change.substring(0, separator)) : null;
+            Object value = setting != null ? OverrideValues.parse(setting, change.substring(separator + 1)) : null;
+
+            if (value != null) transaction.set(setting, value);
+            else invalid.add(change);
+        }
+
+        if (!invalid.isEmpty() || !transaction.commit()) {
+            invalid.addAll(transaction.validate());
+
+            context.getSource().sendError(Text.literal("Settings: " + invalid + " are not valid, no setting was changed"));
+            return 0;
+        }
+
+        final List<String> values = transaction.getSettings().stream().map(setting -> getPath(setting) + "=" + setting.getValue()).toList();
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Settings: " + String.join(", ", values) + " are currently set").formatted(WHITE),
+                true);
+
+        return 15;
+    }
+
+    /**
+     * Gets the number of world saves that were skipped because no setting changed since the last save.
+     * @return the number of skipped saves of the running server, 0 if no server is running
+     */
+    public long getSkippedSaves() {
+        return serverState != null ? serverState.getSkippedSaves() : 0;
+    }
+
+    /**
+     * Waits for the last world save to be written and checks that the saved data matches the values of the settings at the time the world was saved.
+     * <b>Should only be called on the server thread.</b>
+     * @return {@code true} if the saved data matches or nothing was saved yet, {@code false} if it does not match or can not be read
+     */
+    public boolean verifyLastSave() {
+        return serverState == null || serverState.verifyLastSave();
+    }
+
     /**
      * Adds a {@code ConfigComponent} to the {@code ConfigManager}.
      * @param component the ConfigComponent to add
@@ -204,18 +819,99 @@ public class ConfigManager {
     }
 
     /**
-     * Stores the values from the elements of components in the provided NbtCompound.
+     * Gets the full path of a setting of this {@code ConfigManager}.
+     * @param setting the setting
+     * @return the full path of the setting
+     */
+    @NotNull String getPath(@NotNull ConfigSetting setting) {
+        return paths[indices.get(setting)];
+    }
+
+    /**
+     * Checks if the setting is a direct or indirect setting of this {@code ConfigManager}.
+     * @param setting the setting
+     * @return {@code true} if the setting belongs to this {@code ConfigManager}, {@code false} otherwise
+     */
+    boolean isOwnSetting(@NotNull ConfigSetting setting) {
+        return indices.containsKey(setting);
+    }
+
+    /**
+     * Checks if changes of the settings are appended to a journal.
+     * @return {@code true} if journaling is enabled, {@code false} otherwise
+     */
+    boolean usesJournal() {
+        return useJournal;
+    }
+
+    /**
+     * Takes a snapshot of the current values of all settings. Should only be called on the server thread.
+     * @return the snapshot
+     */
+    @NotNull ConfigSnapshot captureSnapshot() {
+        return ConfigSnapshot.capture(settings, settingsTable);
+    }
+
+    /**
+     * Checks if the saved data can be built from a snapshot off the server thread, which requires the compact format.
+     * @return {@code true} if the saved data can be built from a snapshot, {@code false} otherwise
+     */
+    boolean canWriteSnapshots() {
+        return useCompactNbt && compactNbt.canWriteSnapshots();
+    }
+
+    /**
+     * Stores the values of the snapshot in the provided NbtCompound in the compact format, together with the regions of the index
+     * and the dimension overrides.
+     * Can be called off the server thread if {@link #canWriteSnapshots()} is {@code true}.
+     * @param snapshot the snapshot of the values
+     * @param regions the regions captured with the snapshot
+     * @param dimensions the dimension overrides captured with the snapshot
+     * @param nbt the NbtCompound to store the values in
+     */
+    void toNbt(@NotNull ConfigSnapshot snapshot,
+               @NotNull RegionOverrides.Index regions,
+               @NotNull Map<RegistryKey<World>, Object[]> dimensions,
+               @NotNull NbtCompound nbt) {
+        writeCompact(snapshot, nbt);
+        this.regions.toNbt(regions, nbt);
+        this.dimensions.toNbt(dimensions, nbt);
+    }
+
+    /**
+     * Stores the values from the elements of components, the regions and the dimension overrides in the provided NbtCompound.
+     * Uses the compact format if it is enabled and one named tag per setting otherwise.
      * @param nbt the NbtCompound to store the values in
      */
     void toNbt(@NotNull NbtCompound nbt) {
-        components.forEach(component -> component.toNbt(nbt));
+        if (useCompactNbt) writeCompact(captureSnapshot(), nbt);
+        else components.forEach(component -> component.toNbt(nbt));
+
+        regions.toNbt(regions.index(), nbt);
+        dimensions.toNbt(dimensions.overrides(), nbt);
+    }
+
+    /**
+     * Stores the values of the snapshot in the compact format.
+     * If the settings are bound to a {@link SettingsTable}, the numbers and booleans are written as copies of the table's arrays held by the snapshot.
+     * @param snapshot the snapshot of the values
+     * @param nbt the NbtCompound to store the values in
+     */
+    private void writeCompact(@NotNull ConfigSnapshot snapshot, @NotNull NbtCompound nbt) {
+        if (settingsTable != null) compactNbt.writeIndexed(snapshot, snapshot.copyNumbers(), snapshot.copyFlags(), nbt);
+        else compactNbt.write(snapshot, nbt);
     }
 
     /**
-     * Reads the values from the provided nbtCompound and stores them in their associated components.
+     * Reads the values from the provided nbtCompound and stores them in their associated components, and replaces the regions and the dimension overrides.
+     * Detects whether the data was saved in the compact format.
      * @param nbt the NbtCompound to read the values from
      */
     void fromNbt(@NotNull NbtCompound nbt) {
-        components.forEach(component -> component.fromNbt(nbt));
+        if (CompactNbt.isCompact(nbt)) compactNbt.read(nbt);
+        else components.forEach(component -> component.fromNbt(nbt));
+
+        regions.fromNbt(nbt);
+        dimensions.fromNbt(nbt);
     }
 }
\ No newline at end of file
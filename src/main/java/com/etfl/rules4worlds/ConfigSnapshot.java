@@ -0,0 +1,261 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable view of the values of all settings of a {@link ConfigManager} at one point in time.
+ * Used to read multiple settings consistently, even while they are changed on the server thread.
+ * Reading from a snapshot does neither lock nor allocate.
+ * Only settings of the {@code ConfigManager} that created the snapshot can be read from it.
+ * @see ConfigManager#snapshot()
+ */
+public final class ConfigSnapshot {
+    /**
+     * The settings by their index. Shared by all snapshots of a {@code ConfigManager} and never modified.
+     */
+    private final ConfigSetting[] settings;
+
+    /**
+     * The raw bits of the numeric settings by their index, in the same format as in a {@link SettingsTable}.
+     */
+    private final long[] numbers;
+
+    /**
+     * The values of the boolean settings as a bitset by their index, in the same format as in a {@link SettingsTable}.
+     */
+    private final long[] flags;
+
+    /**
+     * The values of all other settings by their index, {@code null} for numeric and boolean settings.
+     */
+    private final Object[] objects;
+
+    private ConfigSnapshot(@NotNull ConfigSetting[] settings, long @NotNull [] numbers, long @NotNull [] flags, @Nullable Object @NotNull [] objects) {
+        this.settings = settings;
+        this.numbers = numbers;
+        this.flags = flags;
+        this.objects = objects;
+    }
+
+    /**
+     * Takes a snapshot of the current values of the settings. Should only be called on the server thread.
+     * If the settings are bound to a table, their values are copied from it.
+     * @param settings the settings by their index
+     * @param table the table the settings are bound to or {@code null} if they store their values themselves
+     * @return the snapshot
+     */
+    static @NotNull ConfigSnapshot capture(@NotNull ConfigSetting[] settings, @Nullable SettingsTable table) {
+        long[] numbers = table != null ? table.copyNumbers() : new long[settings.length];
+        long[] flags = table != null ? table.copyFlags() : new long[(settings.length + 63) >>> 6];
+        Object[] objects = new Object[settings.length];
+
+        for (int i = 0; i < settings.length; i++) {
+            switch (settings[i]) {
+                case IntConfigSetting setting -> { if (table == null) numbers[i] = setting.get(); }
+                case LongConfigSetting setting -> { if (table == null) numbers[i] = setting.get(); }
+                case FloatConfigSetting setting -> { if (table == null) numbers[i] = Float.floatToRawIntBits(setting.get()); }
+                case DoubleConfigSetting setting -> { if (table == null) numbers[i] = Double.doubleToRawLongBits(setting.get()); }
+                case BoolConfigSetting setting -> { if (table == null && setting.get()) flags[i >>> 6] |= 1L << i; }
+                default -> objects[i] = settings[i].getValue();
+            }
+        }
+
+        return new ConfigSnapshot(settings, numbers, flags, objects);
+    }
+
+    /**
+     * Copies the raw bits of the numeric settings, in the same format as in a {@link SettingsTable}.
+     * @return the raw bits of the numeric settings by their index
+     */
+    long @NotNull [] copyNumbers() {
+        return numbers.clone();
+    }
+
+    /**
+     * Copies the values of the boolean settings, in the same format as in a {@link SettingsTable}.
+     * @return the values of the boolean settings as a bitset by their index
+     */
+    long @NotNull [] copyFlags() {
+        return flags.clone();
+    }
+
+    /**
+     * Gets the value of the setting at the time the snapshot was taken.
+     * Boxes numeric and boolean values, use the typed getters to avoid that.
+     * @param setting the setting to get the value of
+     * @return the value of the setting
+     */
+    public @NotNull Object get(@NotNull ConfigSetting setting) {
+        return switch (setting) {
+            case IntConfigSetting intSetting -> get(intSetting);
+            case LongConfigSetting longSetting -> get(longSetting);
+            case FloatConfigSetting floatSetting -> get(floatSetting);
+            case DoubleConfigSetting doubleSetting -> get(doubleSetting);
+            case BoolConfigSetting boolSetting -> get(boolSetting);
+            default -> objects[indexOf(setting)];
+        };
+    }
+
+    /**
+     * Gets the index of a setting that is not read through one of the typed getters.
+     * Settings that do not store their index are looked up by identity.
+     * @param setting the setting
+     * @return the index of the setting
+     * @throws IllegalArgumentException if the setting is not part of the snapshot
+     */
+    private int indexOf(@NotNull ConfigSetting setting) {
+        int index = setting.getIndex();
+        if (index >= 0 && index < settings.length && settings[index] == setting) return index;
+
+        for (int i = 0; i < settings.length; i++) {
+            if (settings[i] == setting) return i;
+        }
+
+        throw new IllegalArgumentException("Setting " + setting.getName() + " is not part of the snapshot");
+    }
+
+    /**
+     * Gets the value of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the value of
+     * @return the value of the setting
+     */
+    public int get(@NotNull IntConfigSetting setting) {
+        return (int) numbers[setting.getIndex()];
+    }
+
+    /**
+     * Gets the value of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the value of
+     * @return the value of the setting
+     */
+    public long get(@NotNull LongConfigSetting setting) {
+        return numbers[setting.getIndex()];
+    }
+
+    /**
+     * Gets the value of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the value of
+     * @return the value of the setting
+     */
+    public float get(@NotNull FloatConfigSetting setting) {
+        return Float.intBitsToFloat((int) numbers[setting.getIndex()]);
+    }
+
+    /**
+     * Gets the value of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the value of
+     * @return the value of the setting
+     */
+    public double get(@NotNull DoubleConfigSetting setting) {
+        return Double.longBitsToDouble(numbers[setting.getIndex()]);
+    }
+
+    /**
+     * Gets the value of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the value of
+     * @return the value of the setting
+     */
+    public boolean get(@NotNull BoolConfigSetting setting) {
+        int index = setting.getIndex();
+        return (flags[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Gets the value of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the value of
+     * @return the value of the setting
+     * @param <T> the enum type of the setting
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Enum<T> & EnumSettingType<T>> @NotNull T get(@NotNull EnumConfigSetting<T> setting) {
+        return (T) objects[setting.getIndex()];
+    }
+
+    /**
+     * Gets the entries of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the entries of
+     * @return the entries of the setting, not modifiable
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull List<String> get(@NotNull RegistrySetSetting<?> setting) {
+        return (List<String>) objects[setting.getIndex()];
+    }
+
+    /**
+     * Gets the values of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the values of
+     * @return the values of the entries that have their own value by identifier, not modifiable
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull Map<String, Integer> get(@NotNull RegistryIntMapSetting<?> setting) {
+        return (Map<String, Integer>) objects[setting.getIndex()];
+    }
+
+    /**
+     * Gets the values of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the values of
+     * @return the values of the entries that have their own value by identifier, not modifiable
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull Map<String, Double> get(@NotNull RegistryDoubleMapSetting<?> setting) {
+        return (Map<String, Double>) objects[setting.getIndex()];
+    }
+
+    /**
+     * Gets the values of the setting at the time the snapshot was taken.
+     * @param setting the setting to get the values of
+     * @return the values of the entries that have their own value by identifier, not modifiable
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull Map<String, Boolean> get(@NotNull RegistryBoolMapSetting<?> setting) {
+        return (Map<String, Boolean>) objects[setting.getIndex()];
+    }
+
+    /**
+     * Determines the changes of the settings between the previous snapshot and this one.
+     * @param previous the previous snapshot
+     * @param settings the settings of the snapshots by their index
+     * @return the changes in the order of the settings' indices, not modifiable
+     */
+    @NotNull List<SettingChange> changesSince(@NotNull ConfigSnapshot previous, @NotNull ConfigSetting[] settings) {
+        List<SettingChange> changes = new ArrayList<>();
+
+        for (int i = 0; i < settings.length; i++) {
+            if (changed(previous, i)) changes.add(new SettingChange(settings[i], previous.value(i), value(i)));
+        }
+
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Gets the value of the setting with the given index.
+     * @param index the index of the setting
+     * @return the value of the setting
+     */
+    private @NotNull Object value(int index) {
+        return objects[index] != null ? objects[index] : get(settings[index]);
+    }
+
+    /**
+     * Checks if the value of the setting with the given index differs between the previous snapshot and this one.
+     * Compares the raw bits, the bitset and the objects, since the unused ones are equal for every setting.
+     * @param previous the previous snapshot
+     * @param index the index of the setting
+     * @return {@code true} if the value changed, {@code false} otherwise
+     */
+    private boolean changed(@NotNull ConfigSnapshot previous, int index) {
+        long flag = 1L << index;
+
+        return numbers[index] != previous.numbers[index]
+                || (flags[index >>> 6] & flag) != (previous.flags[index >>> 6] & flag)
+                || !Objects.equals(objects[index], previous.objects[index]);
+    }
+}
@@ -0,0 +1,107 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.ConfigSetting;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Stages changes of many settings and applies them together, see {@link ConfigManager#transaction()}.
+ * The staged values are validated together when the transaction is committed. If any value is not valid, no setting is changed.
+ * Otherwise all values are set at once: the saved data is marked dirty once and a snapshot containing all changes is published right away,
+ * so readers of {@link ConfigManager#snapshot()} never see the changes half-applied.
+ * The settings themselves are still set one after another, so other threads reading the getters of the settings
+ * or the static fields mirrored by generated rule categories can see some of the changes before the others.
+ * The listeners are notified about all changes together at the end of the tick.
+ * <p>
+ * <b>Should only be used on the server thread.</b> A transaction can only be committed once.
+ */
+public final class ConfigTransaction {
+    private final ConfigManager manager;
+
+    /**
+     * The staged values in the same form as in the config file by setting, in the order they were staged.
+     */
+    private final Map<ConfigSetting, Object> values = new LinkedHashMap<>();
+
+    private boolean committed = false;
+
+    /**
+     * Creates a new empty transaction. Called by {@link ConfigManager#transaction()}.
+     * @param manager the config manager whose settings are changed
+     */
+    ConfigTransaction(@NotNull ConfigManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Stages a new value of a setting. Staging another value for the same setting replaces the previous one.
+     * @param setting a direct or indirect setting of the {@code ConfigManager}
+     * @param value the value in the same form as in the config file, or the enum constant for enum settings
+     * @return the transaction for chaining
+     * @throws IllegalArgumentException if the setting does not belong to the {@code ConfigManager}
+     * @throws IllegalStateException if the transaction was already committed
+     */
+    public ConfigTransaction set(@NotNull ConfigSetting setting, @NotNull Object value) {
+        if (committed) throw new IllegalStateException("Transaction was already committed");
+        if (!manager.isOwnSetting(setting)) throw new IllegalArgumentException("Setting " + setting.getName() + " is not part of config " + manager.modID);
+
+        values.put(setting, value instanceof Enum<?> constant ? constant.toString() : value);
+
+        return this;
+    }
+
+    /**
+     * Stages a new value of a setting. Staging another value for the same setting replaces the previous one.
+     * @param path the full path of a direct or indirect setting of the {@code ConfigManager}, for example {@code mobs.spawning.maxPerChunk}
+     * @param value the value in the same form as in the config file, or the enum constant for enum settings
+     * @return the transaction for chaining
+     * @throws IllegalArgumentException if there is no setting with the path
+     * @throws IllegalStateException if the transaction was already committed
+     */
+    public ConfigTransaction set(@NotNull String path, @NotNull Object value) {
+        ConfigSetting setting = manager.getSetting(path, ConfigSetting.class);
+        if (setting == null) throw new IllegalArgumentException("Unknown setting " + path + " in config " + manager.modID);
+
+        return set(setting, value);
+    }
+
+    /**
+     * Validates all staged values with their settings.
+     * @return the full paths of the settings whose staged value is not valid, empty if all values are valid
+     */
+    public @NotNull List<String> validate() {
+        List<String> invalid = new ArrayList<>();
+
+        values.forEach((setting, value) -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put(setting.getName(), value);
+
+            if (setting.validateOrSetDefault(map)) invalid.add(manager.getPath(setting));
+        });
+
+        return invalid;
+    }
+
+    /**
+     * Validates all staged values and sets them together if all are valid. <b>Should only be called on the server thread.</b>
+     * @return {@code true} if the values were set, {@code false} if any value is not valid, in which case no setting was changed
+     * @throws IllegalStateException if the transaction was already committed
+     */
+    public boolean commit() {
+        if (committed) throw new IllegalStateException("Transaction was already committed");
+        if (!validate().isEmpty()) return false;
+
+        committed = true;
+        manager.apply(values);
+        return true;
+    }
+
+    /**
+     * Gets the settings with a staged value.
+     * @return the settings in the order they were staged, not modifiable
+     */
+    public @NotNull Set<ConfigSetting> getSettings() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+}
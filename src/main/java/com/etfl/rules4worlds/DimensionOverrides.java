@@ -0,0 +1,442 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.argument.DimensionArgumentType;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+import static net.minecraft.util.Formatting.WHITE;
+
+/**
+ * Overrides the values of settings in single dimensions, for example to allow more mobs per chunk in the nether.
+ * Int, long, float, double, boolean and enum settings can be overridden. Dimensions without an override use the value of the setting.
+ * <p>
+ * When the server starts, every world gets a {@link DimensionSlot} and the overrides are copied into an array by slot,
+ * so resolving a setting for a world costs two array reads. If there are no overrides, the value of the setting is returned right away.
+ * The array is rebuilt and replaced on every change, so it can be read on any thread. Overrides should only be changed on the server thread.
+ * Worlds that are created after the server started have no slot and always use the value of the setting.
+ * <p>
+ * The overrides are saved with the world and cleared when the server starts, so overrides set by code should be set after the server started.
+ * @see ConfigManager#dimensions()
+ */
+public final class DimensionOverrides {
+    /**
+     * The key of the overrides in the saved data, which can not clash with the name of a setting.
+     */
+    private static final String DIMENSIONS_KEY = "#dimensions";
+
+    private final ConfigSetting[] settings;
+    private final String[] paths;
+    private final Map<String, ConfigSetting> settingsByPath;
+    private final Runnable markDirty;
+
+    /**
+     * The dimensions by their slot. Assigned when the server starts.
+     */
+    private List<RegistryKey<World>> dimensions = List.of();
+
+    /**
+     * The overrides by dimension, including dimensions that are not loaded. Replaced on every change.
+     */
+    private volatile Map<RegistryKey<World>, Object[]> overrides = Map.of();
+
+    /**
+     * The overrides by slot, {@code null} for dimensions without overrides. Replaced on every change.
+     */
+    private volatile Object[][] slots = new Object[0][];
+
+    /**
+     * Creates new {@code DimensionOverrides} for the settings of a {@link ConfigManager}. Called when the {@code ConfigManager} is initialized.
+     * @param settings the settings by their index
+     * @param paths the full paths of the settings by their index
+     * @param settingsByPath the settings by their full path
+     * @param markDirty called when an override changed, so that the overrides are saved
+     */
+    DimensionOverrides(@NotNull ConfigSetting[] settings,
+                       @NotNull String[] paths,
+                       @NotNull Map<String, ConfigSetting> settingsByPath,
+                       @NotNull Runnable markDirty) {
+        this.settings = settings;
+        this.paths = paths;
+        this.settingsByPath = settingsByPath;
+        this.markDirty = markDirty;
+    }
+
+    /**
+     * Gets the value of the setting in the world, which is the override of its dimension or the value of the setting if there is none.
+     * @param setting the setting
+     * @param world the world
+     * @return the value of the setting in the world
+     */
+    public int get(@NotNull IntConfigSetting setting, @NotNull World world) {
+        Object value = find(setting, world);
+        return value != null ? (Integer) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting in the world, which is the override of its dimension or the value of the setting if there is none.
+     * @param setting the setting
+     * @param world the world
+     * @return the value of the setting in the world
+     */
+    public long get(@NotNull LongConfigSetting setting, @NotNull World world) {
+        Object value = find(setting, world);
+        return value != null ? (Long) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting in the world, which is the override of its dimension or the value of the setting if there is none.
+     * @param setting the setting
+     * @param world the world
+     * @return the value of the setting in the world
+     */
+    public float get(@NotNull FloatConfigSetting setting, @NotNull World world) {
+        Object value = find(setting, world);
+        return value != null ? (Float) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting in the world, which is the override of its dimension or the value of the setting if there is none.
+     * @param setting the setting
+     * @param world the world
+     * @return the value of the setting in the world
+     */
+    public double get(@NotNull DoubleConfigSetting setting, @NotNull World world) {
+        Object value = find(setting, world);
+        return value != null ? (Double) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting in the world, which is the override of its dimension or the value of the setting if there is none.
+     * @param setting the setting
+     * @param world the world
+     * @return the value of the setting in the world
+     */
+    public boolean get(@NotNull BoolConfigSetting setting, @NotNull World world) {
+        Object value = find(setting, world);
+        return value != null ? (Boolean) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting in the world, which is the override of its dimension or the value of the setting if there is none.
+     * @param setting the setting
+     * @param world the world
+     * @return the value of the setting in the world
+     * @param <T> the enum type of the setting
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Enum<T> & EnumSettingType<T>> @NotNull T get(@NotNull EnumConfigSetting<T> setting, @NotNull World world) {
+        Object value = find(setting, world);
+        return value != null ? (T) value : setting.get();
+    }
+
+    /**
+     * Overrides the value of a setting in a dimension. <b>Should only be called on the server thread.</b>
+     * @param dimension the dimension, which does not need to be loaded
+     * @param setting an int, long, float, double, boolean or enum setting of the {@code ConfigManager}
+     * @param value the value in the same form as in the config file, or the enum constant for enum settings
+     * @return {@code true} if the value was set, {@code false} if the setting can not be overridden or the value is not valid for the setting
+     */
+    public boolean setOverride(@NotNull RegistryKey<World> dimension, @NotNull ConfigSetting setting, @NotNull Object value) {
+        Object overrideValue = isOwnSetting(setting) ? OverrideValues.toOverrideValue(setting, value) : null;
+
+        if (overrideValue == null) return false;
+
+        update(dimension, setting.getIndex(), overrideValue);
+        return true;
+    }
+
+    /**
+     * Removes the override of a setting in a dimension. <b>Should only be called on the server thread.</b>
+     * @param dimension the dimension
+     * @param setting the setting
+     * @return {@code true} if the override was removed, {@code false} if the dimension does not override the setting
+     */
+    public boolean removeOverride(@NotNull RegistryKey<World> dimension, @NotNull ConfigSetting setting) {
+        Object[] values = overrides.get(dimension);
+
+        if (values == null || !isOwnSetting(setting) || values[setting.getIndex()] == null) return false;
+
+        update(dimension, setting.getIndex(), null);
+        return true;
+    }
+
+    /**
+     * Gets the dimensions that override at least one setting.
+     * @return the dimensions
+     */
+    public @NotNull Set<RegistryKey<World>> getDimensions() {
+        return overrides.keySet();
+    }
+
+    /**
+     * Gets the current overrides, which do not change anymore and can be written off the server thread.
+     * @return the overrides by dimension
+     */
+    @NotNull Map<RegistryKey<World>, Object[]> overrides() {
+        return overrides;
+    }
+
+    /**
+     * Assigns a {@link DimensionSlot} to every world of the server in the order of {@link MinecraftServer#getWorlds()},
+     * so that all {@code ConfigManager}s assign the same slots. Called when the server starts.
+     * @param server the server that started
+     */
+    void assignSlots(@NotNull MinecraftServer server) {
+        List<RegistryKey<World>> dimensions = new ArrayList<>();
+
+        for (ServerWorld world : server.getWorlds()) {
+            ((DimensionSlot) world).rules4worlds$setDimensionSlot(dimensions.size());
+            dimensions.add(world.getRegistryKey());
+        }
+
+        this.dimensions = List.copyOf(dimensions);
+        slots = buildSlots(overrides);
+    }
+
+    /**
+     * Removes all overrides and slots without marking them dirty. Called when the server starts and stops.
+     */
+    void clear() {
+        dimensions = List.of();
+        overrides = Map.of();
+        slots = new Object[0][];
+    }
+
+    /**
+     * Stores the overrides in the provided NbtCompound. Can be called on any thread.
+     * Overrides are stored by the id of their dimension and the full path of their setting.
+     * @param overrides the overrides to store
+     * @param nbt the NbtCompound to store the overrides in
+     */
+    void toNbt(@NotNull Map<RegistryKey<World>, Object[]> overrides, @NotNull NbtCompound nbt) {
+        if (overrides.isEmpty()) return;
+
+        NbtCompound dimensionsNbt = new NbtCompound();
+
+        overrides.forEach((dimension, values) -> {
+            NbtCompound valuesNbt = new NbtCompound();
+
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) OverrideValues.toNbt(valuesNbt, paths[i], values[i]);
+            }
+
+            dimensionsNbt.put(dimension.getValue().toString(), valuesNbt);
+        });
+
+        nbt.put(DIMENSIONS_KEY, dimensionsNbt);
+    }
+
+    /**
+     * Replaces the overrides with the overrides in the provided NbtCompound. Should only be called on the server thread.
+     * Overrides of settings that no longer exist or whose value is no longer valid are skipped.
+     * @param nbt the NbtCompound to read the overrides from
+     */
+    void fromNbt(@NotNull NbtCompound nbt) {
+        NbtCompound dimensionsNbt = nbt.getCompound(DIMENSIONS_KEY);
+        Map<RegistryKey<World>, Object[]> overrides = new HashMap<>();
+
+        for (String id : dimensionsNbt.getKeys()) {
+            Identifier dimension = Identifier.tryParse(id);
+            if (dimension == null) continue;
+
+            Object[] values = new Object[settings.length];
+            NbtCompound valuesNbt = dimensionsNbt.getCompound(id);
+
+            for (String path : valuesNbt.getKeys()) {
+                ConfigSetting setting = settingsByPath.get(path);
+                if (setting != null) values[setting.getIndex()] = OverrideValues.fromNbt(valuesNbt, path, setting);
+            }
+
+            if (hasOverrides(values)) overrides.put(RegistryKey.of(RegistryKeys.WORLD, dimension), values);
+        }
+
+        this.overrides = Map.copyOf(overrides);
+        slots = buildSlots(this.overrides);
+    }
+
+    /**
+     * Adds the dimension command to the command tree.
+     * @param command the base command of the {@code ConfigManager}
+     */
+    void initialize(@NotNull LiteralArgumentBuilder<ServerCommandSource> command) {
+        command.then(literal("dimension")
+                .then(literal("list")
+                        .executes(this::list))
+                .then(literal("set")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("dimension", DimensionArgumentType.dimension())
+                                .then(argument("setting", StringArgumentType.word())
+                                        .suggests((context, builder) -> CommandSource.suggestMatching(overridablePaths(), builder))
+                                        .then(argument("value", StringArgumentType.greedyString())
+                                                .executes(this::set)))))
+                .then(literal("unset")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("dimension", DimensionArgumentType.dimension())
+                                .then(argument("setting", StringArgumentType.word())
+                                        .suggests((context, builder) -> CommandSource.suggestMatching(
+                                                overridePaths(DimensionArgumentType.getDimensionArgument(context, "dimension").getRegistryKey()), builder))
+                                        .executes(this::unset))))
+        );
+    }
+
+    /**
+     * Finds the override of the setting for the dimension of the world.
+     * Settings that are not part of the {@code ConfigManager} are recognized by identity, since their index may be in range.
+     * @param setting the setting
+     * @param world the world
+     * @return the override or {@code null} if the dimension does not override the setting, the world has no slot or the setting is not part of the {@code ConfigManager}
+     */
+    private @Nullable Object find(@NotNull ConfigSetting setting, @NotNull World world) {
+        int index = setting.getIndex();
+        if (index < 0 || index >= settings.length || settings[index] != setting) return null;
+
+        Object[][] slots = this.slots;
+        int slot = ((DimensionSlot) world).rules4worlds$getDimensionSlot();
+
+        if (slot < 0 || slot >= slots.length) return null;
+
+        Object[] values = slots[slot];
+        return values != null && index < values.length ? values[index] : null;
+    }
+
+    private void update(@NotNull RegistryKey<World> dimension, int index, @Nullable Object value) {
+        Map<RegistryKey<World>, Object[]> overrides = new HashMap<>(this.overrides);
+        Object[] values = overrides.containsKey(dimension) ? overrides.get(dimension).clone() : new Object[settings.length];
+        values[index] = value;
+
+        if (hasOverrides(values)) overrides.put(dimension, values);
+        else overrides.remove(dimension);
+
+        this.overrides = Map.copyOf(overrides);
+        slots = buildSlots(this.overrides);
+        markDirty.run();
+    }
+
+    /**
+     * Copies the overrides of the dimensions with a slot into an array by slot.
+     * @param overrides the overrides by dimension
+     * @return the overrides by slot, empty if no dimension with a slot has overrides
+     */
+    private @Nullable Object @NotNull [][] buildSlots(@NotNull Map<RegistryKey<World>, Object[]> overrides) {
+        if (overrides.isEmpty()) return new Object[0][];
+
+        Object[][] slots = new Object[dimensions.size()][];
+
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = overrides.get(dimensions.get(i));
+        }
+
+        return slots;
+    }
+
+    private static boolean hasOverrides(@Nullable Object @NotNull [] values) {
+        for (Object value : values) {
+            if (value != null) return true;
+        }
+
+        return false;
+    }
+
+    private boolean isOwnSetting(@NotNull ConfigSetting setting) {
+        int index = setting.getIndex();
+        return index >= 0 && index < settings.length && settings[index] == setting;
+    }
+
+    private @NotNull Stream<String> overridablePaths() {
+        return Arrays.stream(settings).filter(OverrideValues::isOverridable).map(setting -> paths[setting.getIndex()]);
+    }
+
+    private @NotNull Stream<String> overridePaths(@NotNull RegistryKey<World> dimension) {
+        Object[] values = overrides.get(dimension);
+        if (values == null) return Stream.empty();
+
+        return Arrays.stream(settings).filter(setting -> values[setting.getIndex()] != null).map(setting -> paths[setting.getIndex()]);
+    }
+
+    /**
+     * Called when the command to list the dimension overrides is executed.
+     * @param context the command context
+     * @return the number of dimensions with overrides
+     */
+    private int list(CommandContext<ServerCommandSource> context) {
+        Map<RegistryKey<World>, Object[]> overrides = this.overrides;
+
+        overrides.forEach((dimension, values) -> {
+            List<String> entries = new ArrayList<>();
+
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) entries.add(paths[i] + "=" + values[i]);
+            }
+
+            context.getSource().sendFeedback(
+                    () -> Text.literal("Dimension: " + dimension.getValue() + " overrides: " + entries).formatted(WHITE),
+                    false);
+        });
+
+        return overrides.size();
+    }
+
+    /**
+     * Called when the command to override a setting in a dimension is executed.
+     * @param context the command context
+     * @return 15 if the override was set and 0 otherwise
+     */
+    private int set(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        final RegistryKey<World> dimension = DimensionArgumentType.getDimensionArgument(context, "dimension").getRegistryKey();
+        final String path = StringArgumentType.getString(context, "setting");
+        final String text = StringArgumentType.getString(context, "value");
+        ConfigSetting setting = settingsByPath.get(path);
+        Object value = setting != null ? OverrideValues.parse(setting, text) : null;
+
+        if (value == null || !setOverride(dimension, setting, value)) {
+            context.getSource().sendError(Text.literal("Dimension: " + dimension.getValue() + " can not override " + path + " with " + text));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Dimension: " + dimension.getValue() + " overrides " + path + " with: " + text).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+
+    /**
+     * Called when the command to remove the override of a setting in a dimension is executed.
+     * @param context the command context
+     * @return 15 if the override was removed and 0 otherwise
+     */
+    private int unset(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        final RegistryKey<World> dimension = DimensionArgumentType.getDimensionArgument(context, "dimension").getRegistryKey();
+        final String path = StringArgumentType.getString(context, "setting");
+        ConfigSetting setting = settingsByPath.get(path);
+
+        if (setting == null || !removeOverride(dimension, setting)) {
+            context.getSource().sendError(Text.literal("Dimension: " + dimension.getValue() + " does not override " + path));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(() -> Text.literal("Dimension: " + dimension.getValue() + " no longer overrides " + path).formatted(WHITE), true);
+
+        return 15;
+    }
+}
@@ -0,0 +1,20 @@
+package com.etfl.rules4worlds;
+
+/**
+ * The slot of a dimension in the per-dimension override arrays, see {@link DimensionOverrides}.
+ * Implemented by every {@link net.minecraft.world.World} through a mixin, so that resolving a setting for a world does not need a map lookup.
+ * The slots are assigned when the server starts and are the same for all {@code ConfigManager}s. Worlds without a slot return -1.
+ */
+public interface DimensionSlot {
+    /**
+     * Gets the slot of the world.
+     * @return the slot of the world or -1 if it has none
+     */
+    int rules4worlds$getDimensionSlot();
+
+    /**
+     * Sets the slot of the world. Called when the server starts.
+     * @param slot the slot of the world or -1 to remove it
+     */
+    void rules4worlds$setDimensionSlot(int slot);
+}
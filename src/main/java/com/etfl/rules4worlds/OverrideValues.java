@@ -0,0 +1,112 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import com.google.gson.stream.JsonReader;
+import net.minecraft.nbt.NbtCompound;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Validates, converts and stores the values of settings that are overridden in a part of the game, see {@link RegionOverrides} and {@link DimensionOverrides}.
+ * Int, long, float, double, boolean and enum settings can be overridden. Their override values are stored as
+ * {@code Integer}, {@code Long}, {@code Float}, {@code Double}, {@code Boolean} or the enum constant.
+ */
+final class OverrideValues {
+    private OverrideValues() {}
+
+    /**
+     * Checks if the setting can be overridden.
+     * @param setting the setting
+     * @return {@code true} if it is an int, long, float, double, boolean or enum setting, {@code false} otherwise
+     */
+    static boolean isOverridable(@NotNull ConfigSetting setting) {
+        return setting instanceof IntConfigSetting || setting instanceof LongConfigSetting || setting instanceof FloatConfigSetting
+                || setting instanceof DoubleConfigSetting || setting instanceof BoolConfigSetting || setting instanceof EnumConfigSetting<?>;
+    }
+
+    /**
+     * Validates a value using the setting and converts it into the stored override value.
+     * @param setting the setting
+     * @param value the value in the same form as in the config file, or the enum constant for enum settings
+     * @return the value to store, {@code null} if the setting can not be overridden or the value is not valid
+     */
+    static @Nullable Object toOverrideValue(@NotNull ConfigSetting setting, @NotNull Object value) {
+        if (!isOverridable(setting)) return null;
+
+        Object configValue = value instanceof Enum<?> constant ? constant.toString() : value;
+        Map<String, Object> map = new HashMap<>();
+        map.put(setting.getName(), configValue);
+
+        if (setting.validateOrSetDefault(map)) return null;
+
+        return switch (setting) {
+            case IntConfigSetting ignored -> ((Number) configValue).intValue();
+            case LongConfigSetting ignored -> ((Number) configValue).longValue();
+            case FloatConfigSetting ignored -> ((Number) configValue).floatValue();
+            case DoubleConfigSetting ignored -> ((Number) configValue).doubleValue();
+            case EnumConfigSetting<?> enumSetting -> enumSetting.get().fromString((String) configValue);
+            default -> configValue;
+        };
+    }
+
+    /**
+     * Parses the value of an override as if it was written in the config file. Strings do not need to be quoted.
+     * @param setting the setting
+     * @param text the value to parse
+     * @return the value in the same form as in the config file or {@code null} if it is not valid
+     */
+    static @Nullable Object parse(@NotNull ConfigSetting setting, @NotNull String text) {
+        Map<String, Object> map = new HashMap<>();
+        JsonReader reader = new JsonReader(new StringReader(text));
+        reader.setLenient(true);
+
+        try {
+            return setting.readJson(reader, map) ? map.get(setting.getName()) : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores an override value in the provided NbtCompound.
+     * @param nbt the NbtCompound to store the value in
+     * @param key the key of the value, usually the full path of the setting
+     * @param value the override value
+     */
+    static void toNbt(@NotNull NbtCompound nbt, @NotNull String key, @NotNull Object value) {
+        switch (value) {
+            case Integer intValue -> nbt.putInt(key, intValue);
+            case Long longValue -> nbt.putLong(key, longValue);
+            case Float floatValue -> nbt.putFloat(key, floatValue);
+            case Double doubleValue -> nbt.putDouble(key, doubleValue);
+            case Boolean boolValue -> nbt.putBoolean(key, boolValue);
+            case Enum<?> enumValue -> nbt.putString(key, enumValue.toString());
+            default -> {}
+        }
+    }
+
+    /**
+     * Reads and validates an override value of the setting from the provided NbtCompound.
+     * @param nbt the NbtCompound to read the value from
+     * @param key the key of the value
+     * @param setting the setting
+     * @return the override value or {@code null} if it is no longer valid
+     */
+    static @Nullable Object fromNbt(@NotNull NbtCompound nbt, @NotNull String key, @NotNull ConfigSetting setting) {
+        Object value = switch (setting) {
+            case IntConfigSetting ignored -> nbt.getInt(key);
+            case LongConfigSetting ignored -> nbt.getLong(key);
+            case FloatConfigSetting ignored -> nbt.getFloat(key);
+            case DoubleConfigSetting ignored -> nbt.getDouble(key);
+            case BoolConfigSetting ignored -> nbt.getBoolean(key);
+            default -> nbt.getString(key);
+        };
+
+        return toOverrideValue(setting, value);
+    }
+}
@@ -0,0 +1,629 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.argument.EntityArgumentType;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtSizeTracker;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+import static net.minecraft.util.Formatting.WHITE;
+
+/**
+ * Overrides the values of settings for single players, for example opt-out flags or personal limits.
+ * Int, long, float, double, boolean and enum settings can be overridden. Players without an override use the value of the setting.
+ * <p>
+ * Only the overrides of online players are kept in memory, so memory use depends on the number of online players and not on the number
+ * of players that ever joined. The overrides of a player are loaded from its own file in the background when it joins and evicted when it leaves.
+ * Until they are loaded, the player uses the values of the settings.
+ * Each player with overrides has a row of the indices of its overridden settings in ascending order and their raw {@code long} values,
+ * so the memory of a player depends on its number of overrides and not on the number of settings.
+ * Resolving a setting for an online player costs a hash lookup of its UUID and a binary search over its overrides without allocating.
+ * <p>
+ * Changed players are written in one batch in the background whenever the world is saved, and when the server stops.
+ * <b>Overrides should only be read and changed on the server thread.</b>
+ * @see ConfigManager#players()
+ */
+public final class PlayerOverrides {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Rules4Worlds");
+
+    /**
+     * Reads and writes the player files in the background.
+     */
+    private static final Executor IO_EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("Rules4Worlds player io").factory());
+
+    private final ConfigSetting[] settings;
+    private final String[] paths;
+    private final Map<String, ConfigSetting> settingsByPath;
+
+    /**
+     * The constants of the enum settings by setting index, {@code null} for other settings. Used to decode ordinals without allocating.
+     */
+    private final Enum<?>[][] enumConstants;
+
+    /**
+     * The players that joined and have not left yet.
+     */
+    private final Set<UUID> online = new HashSet<>();
+
+    /**
+     * The pending loads of the online players whose file is still being read. Only the latest load of a player is applied.
+     */
+    private final Map<UUID, CompletableFuture<NbtCompound>> loading = new HashMap<>();
+
+    /**
+     * The overrides of the online players with at least one override.
+     */
+    private final Object2ObjectOpenHashMap<UUID, Row> rows = new Object2ObjectOpenHashMap<>();
+
+    /**
+     * The online players whose overrides changed since the last batch.
+     */
+    private final Set<UUID> dirtyPlayers = new HashSet<>();
+
+    /**
+     * The saved data of players that left with changed overrides and are written with the next batch.
+     * An empty compound deletes the file of the player.
+     */
+    private final Map<UUID, NbtCompound> unsaved = new HashMap<>();
+
+    /**
+     * The directory of the player files of the running server, {@code null} if no server is running.
+     */
+    private Path directory = null;
+
+    /**
+     * Runs the loaded overrides on the server thread, {@code null} if no server is running.
+     */
+    private Executor serverExecutor = null;
+
+    /**
+     * The batch that is being written or the last written batch. Batches are chained, so they are written in order.
+     */
+    private CompletableFuture<Void> pendingWrites = CompletableFuture.completedFuture(null);
+
+    /**
+     * Creates new {@code PlayerOverrides} for the settings of a {@link ConfigManager}. Called when the {@code ConfigManager} is initialized.
+     * @param settings the settings by their index
+     * @param paths the full paths of the settings by their index
+     * @param settingsByPath the settings by their full path
+     */
+    PlayerOverrides(@NotNull ConfigSetting[] settings,
+                    @NotNull String[] paths,
+                    @NotNull Map<String, ConfigSetting> settingsByPath) {
+        this.settings = settings;
+        this.paths = paths;
+        this.settingsByPath = settingsByPath;
+        this.enumConstants = new Enum<?>[settings.length][];
+
+        for (ConfigSetting setting : settings) {
+            if (setting instanceof EnumConfigSetting<?> enumSetting)
+                enumConstants[setting.getIndex()] = enumSetting.get().getDeclaringClass().getEnumConstants();
+        }
+    }
+
+    /**
+     * Gets the value of the setting for the player, which is the override of the player or the value of the setting if there is none.
+     * @param setting the setting
+     * @param player the UUID of the player, for example {@code player.getUuid()}
+     * @return the value of the setting for the player
+     */
+    public int get(@NotNull IntConfigSetting setting, @NotNull UUID player) {
+        Row row = rows.get(player);
+        int position = row != null && isOwnSetting(setting) ? row.find(setting.getIndex()) : -1;
+        return position >= 0 ? (int) row.values[position] : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting for the player, which is the override of the player or the value of the setting if there is none.
+     * @param setting the setting
+     * @param player the UUID of the player, for example {@code player.getUuid()}
+     * @return the value of the setting for the player
+     */
+    public long get(@NotNull LongConfigSetting setting, @NotNull UUID player) {
+        Row row = rows.get(player);
+        int position = row != null && isOwnSetting(setting) ? row.find(setting.getIndex()) : -1;
+        return position >= 0 ? row.values[position] : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting for the player, which is the override of the player or the value of the setting if there is none.
+     * @param setting the setting
+     * @param player the UUID of the player, for example {@code player.getUuid()}
+     * @return the value of the setting for the player
+     */
+    public float get(@NotNull FloatConfigSetting setting, @NotNull UUID player) {
+        Row row = rows.get(player);
+        int position = row != null && isOwnSetting(setting) ? row.find(setting.getIndex()) : -1;
+        return position >= 0 ? Float.intBitsToFloat((int) row.values[position]) : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting for the player, which is the override of the player or the value of the setting if there is none.
+     * @param setting the setting
+     * @param player the UUID of the player, for example {@code player.getUuid()}
+     * @return the value of the setting for the player
+     */
+    public double get(@NotNull DoubleConfigSetting setting, @NotNull UUID player) {
+        Row row = rows.get(player);
+        int position = row != null && isOwnSetting(setting) ? row.find(setting.getIndex()) : -1;
+        return position >= 0 ? Double.longBitsToDouble(row.values[position]) : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting for the player, which is the override of the player or the value of the setting if there is none.
+     * @param setting the setting
+     * @param player the UUID of the player, for example {@code player.getUuid()}
+     * @return the value of the setting for the player
+     */
+    public boolean get(@NotNull BoolConfigSetting setting, @NotNull UUID player) {
+        Row row = rows.get(player);
+        int position = row != null && isOwnSetting(setting) ? row.find(setting.getIndex()) : -1;
+        return position >= 0 ? row.values[position] != 0 : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting for the player, which is the override of the player or the value of the setting if there is none.
+     * @param setting the setting
+     * @param player the UUID of the player, for example {@code player.getUuid()}
+     * @return the value of the setting for the player
+     * @param <T> the enum type of the setting
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Enum<T> & EnumSettingType<T>> @NotNull T get(@NotNull EnumConfigSetting<T> setting, @NotNull UUID player) {
+        Row row = rows.get(player);
+        int position = row != null && isOwnSetting(setting) ? row.find(setting.getIndex()) : -1;
+        return position >= 0 ? (T) enumConstants[row.indices[position]][(int) row.values[position]] : setting.get();
+    }
+
+    /**
+     * Overrides the value of a setting for an online player. <b>Should only be called on the server thread.</b>
+     * @param player the UUID of the player
+     * @param setting an int, long, float, double, boolean or enum setting of the {@code ConfigManager}
+     * @param value the value in the same form as in the config file, or the enum constant for enum settings
+     * @return {@code true} if the value was set, {@code false} if the player is not online, its overrides are still being loaded,
+     * the setting can not be overridden or the value is not valid for the setting
+     */
+    public boolean setOverride(@NotNull UUID player, @NotNull ConfigSetting setting, @NotNull Object value) {
+        Object overrideValue = isOwnSetting(setting) ? OverrideValues.toOverrideValue(setting, value) : null;
+
+        if (directory == null || !isOnline(player) || loading.containsKey(player) || overrideValue == null) return false;
+
+        rows.computeIfAbsent(player, uuid -> new Row()).set(setting.getIndex(), encode(overrideValue));
+        dirtyPlayers.add(player);
+        return true;
+    }
+
+    /**
+     * Removes the override of a setting for an online player. <b>Should only be called on the server thread.</b>
+     * @param player the UUID of the player
+     * @param setting the setting
+     * @return {@code true} if the override was removed, {@code false} if the player is not online or does not override the setting
+     */
+    public boolean removeOverride(@NotNull UUID player, @NotNull ConfigSetting setting) {
+        Row row = rows.get(player);
+
+        if (row == null || !isOwnSetting(setting) || row.find(setting.getIndex()) < 0) return false;
+
+        row.remove(setting.getIndex());
+        if (row.isEmpty()) rows.remove(player);
+        dirtyPlayers.add(player);
+        return true;
+    }
+
+    /**
+     * Sets the directory of the player files and the executor of the server thread. Called when the server starts.
+     * @param directory the directory of the player files
+     * @param serverExecutor the executor that runs tasks on the server thread
+     */
+    void start(@NotNull Path directory, @NotNull Executor serverExecutor) {
+        this.directory = directory;
+        this.serverExecutor = serverExecutor;
+    }
+
+    /**
+     * Loads the overrides of a player. Called when the player joins.
+     * Overrides that were not written yet are applied right away. Otherwise the file is read in the background after the pending writes,
+     * so that overrides changed shortly before are not lost if the player rejoins quickly, and applied on the server thread.
+     * @param player the UUID of the player
+     */
+    void onJoin(@NotNull UUID player) {
+        if (directory == null) return;
+
+        online.add(player);
+
+        NbtCompound nbt = unsaved.remove(player);
+
+        if (nbt != null) {
+            dirtyPlayers.add(player);
+            load(player, nbt);
+            return;
+        }
+
+        Path path = directory.resolve(player + ".dat");
+        CompletableFuture<NbtCompound> pending = pendingWrites.thenApplyAsync(ignored -> read(path), IO_EXECUTOR);
+
+        loading.put(player, pending);
+        pending.thenAcceptAsync(data -> {
+            if (loading.remove(player, pending)) load(player, data);
+        }, serverExecutor);
+    }
+
+    /**
+     * Applies the loaded overrides of a player.
+     * @param player the UUID of the player
+     * @param nbt the saved data of the player
+     */
+    private void load(@NotNull UUID player, @NotNull NbtCompound nbt) {
+        Row row = fromNbt(nbt);
+        if (row != null) rows.put(player, row);
+    }
+
+    /**
+     * Evicts the overrides of a player. Called when the player leaves.
+     * Changed overrides are kept as NBT until the next batch is written.
+     * @param player the UUID of the player
+     */
+    void onLeave(@NotNull UUID player) {
+        online.remove(player);
+        loading.remove(player);
+
+        Row row = rows.remove(player);
+
+        if (dirtyPlayers.remove(player)) unsaved.put(player, row != null ? toNbt(row) : new NbtCompound());
+    }
+
+    /**
+     * Writes the changed overrides of all players in one batch in the background. Called when the world is saved.
+     */
+    void saveDirty() {
+        if (directory == null || dirtyPlayers.isEmpty() && unsaved.isEmpty()) return;
+
+        Map<UUID, NbtCompound> batch = new HashMap<>(unsaved);
+
+        for (UUID player : dirtyPlayers) {
+            Row row = rows.get(player);
+            batch.put(player, row != null ? toNbt(row) : new NbtCompound());
+        }
+
+        dirtyPlayers.clear();
+        unsaved.clear();
+
+        Path directory = this.directory;
+        pendingWrites = pendingWrites.thenRunAsync(() -> write(directory, batch), IO_EXECUTOR);
+    }
+
+    /**
+     * Writes the changed overrides, waits until all batches are written and removes all overrides. Called when the server stops.
+     */
+    void close() {
+        saveDirty();
+        pendingWrites.join();
+
+        directory = null;
+        serverExecutor = null;
+        online.clear();
+        loading.clear();
+        rows.clear();
+        dirtyPlayers.clear();
+        unsaved.clear();
+    }
+
+    /**
+     * Adds the player command to the command tree.
+     * @param command the base command of the {@code ConfigManager}
+     */
+    void initialize(@NotNull LiteralArgumentBuilder<ServerCommandSource> command) {
+        command.then(literal("player")
+                .then(literal("list")
+                        .then(argument("player", EntityArgumentType.player())
+                                .executes(this::list)))
+                .then(literal("set")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("player", EntityArgumentType.player())
+                                .then(argument("setting", StringArgumentType.word())
+                                        .suggests((context, builder) -> CommandSource.suggestMatching(overridablePaths(), builder))
+                                        .then(argument("value", StringArgumentType.greedyString())
+                                                .executes(this::set)))))
+                .then(literal("unset")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("player", EntityArgumentType.player())
+                                .then(argument("setting", StringArgumentType.word())
+                                        .suggests((context, builder) -> CommandSource.suggestMatching(
+                                                overridePaths(EntityArgumentType.getPlayer(context, "player").getUuid()), builder))
+                                        .executes(this::unset))))
+        );
+    }
+
+    private boolean isOnline(@NotNull UUID player) {
+        return online.contains(player);
+    }
+
+    /**
+     * Reads the saved data of a player. Called on the io executor.
+     * @param path the file of the player
+     * @return the saved data or an empty compound if the player has no file or it can not be read
+     */
+    private static @NotNull NbtCompound read(@NotNull Path path) {
+        if (!Files.exists(path)) return new NbtCompound();
+
+        try {
+            return NbtIo.readCompressed(path, NbtSizeTracker.ofUnlimitedBytes()).getCompound("data");
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read player rules from {}", path, e);
+            return new NbtCompound();
+        }
+    }
+
+    /**
+     * Writes a batch of player files. Empty compounds delete the file of the player. Called on the io executor.
+     * @param directory the directory of the player files
+     * @param batch the saved data by player
+     */
+    private static void write(@NotNull Path directory, @NotNull Map<UUID, NbtCompound> batch) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            LOGGER.error("Failed to create {}", directory, e);
+            return;
+        }
+
+        batch.forEach((player, data) -> {
+            Path path = directory.resolve(player + ".dat");
+
+            try {
+                if (data.isEmpty()) {
+                    Files.deleteIfExists(path);
+                    return;
+                }
+
+                NbtCompound nbt = new NbtCompound();
+                nbt.put("data", data);
+                NbtHelper.putDataVersion(nbt);
+
+                NbtIo.writeCompressed(nbt, path);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Failed to save player rules to {}", path, e);
+            }
+        });
+    }
+
+    /**
+     * Stores the overrides of a row by the full path of their setting.
+     * @param row the row
+     * @return the saved data of the row
+     */
+    private @NotNull NbtCompound toNbt(@NotNull Row row) {
+        NbtCompound nbt = new NbtCompound();
+
+        for (int position = 0; position < row.indices.length; position++) {
+            int index = row.indices[position];
+            OverrideValues.toNbt(nbt, paths[index], decode(index, row.values[position]));
+        }
+
+        return nbt;
+    }
+
+    /**
+     * Reads the overrides of a player. Overrides of settings that no longer exist or whose value is no longer valid are skipped.
+     * @param nbt the saved data of the player
+     * @return the row or {@code null} if the player has no overrides
+     */
+    private @Nullable Row fromNbt(@NotNull NbtCompound nbt) {
+        Row row = null;
+
+        for (String path : nbt.getKeys()) {
+            ConfigSetting setting = settingsByPath.get(path);
+            Object value = setting != null ? OverrideValues.fromNbt(nbt, path, setting) : null;
+            if (value == null) continue;
+
+            if (row == null) row = new Row();
+            row.set(setting.getIndex(), encode(value));
+        }
+
+        return row;
+    }
+
+    /**
+     * Encodes an override value as its raw bits.
+     * @param value an {@code Integer}, {@code Long}, {@code Float}, {@code Double}, {@code Boolean} or enum constant
+     * @return the raw bits of the value, the ordinal for enum constants
+     */
+    private static long encode(@NotNull Object value) {
+        return switch (value) {
+            case Integer intValue -> intValue;
+            case Long longValue -> longValue;
+            case Float floatValue -> Float.floatToRawIntBits(floatValue);
+            case Double doubleValue -> Double.doubleToRawLongBits(doubleValue);
+            case Boolean boolValue -> boolValue ? 1 : 0;
+            case Enum<?> enumValue -> enumValue.ordinal();
+            default -> throw new IllegalArgumentException("Unsupported override value " + value);
+        };
+    }
+
+    /**
+     * Decodes the raw bits of an override value.
+     * @param index the index of the setting
+     * @param bits the raw bits
+     * @return the override value
+     */
+    private @NotNull Object decode(int index, long bits) {
+        return switch (settings[index]) {
+            case IntConfigSetting ignored -> (int) bits;
+            case FloatConfigSetting ignored -> Float.intBitsToFloat((int) bits);
+            case DoubleConfigSetting ignored -> Double.longBitsToDouble(bits);
+            case BoolConfigSetting ignored -> bits != 0;
+            case EnumConfigSetting<?> ignored -> enumConstants[index][(int) bits];
+            default -> bits;
+        };
+    }
+
+    private boolean isOwnSetting(@NotNull ConfigSetting setting) {
+        int index = setting.getIndex();
+        return index >= 0 && index < settings.length && settings[index] == setting;
+    }
+
+    private @NotNull Stream<String> overridablePaths() {
+        return Arrays.stream(settings).filter(OverrideValues::isOverridable).map(setting -> paths[setting.getIndex()]);
+    }
+
+    private @NotNull Stream<String> overridePaths(@NotNull UUID player) {
+        Row row = rows.get(player);
+        if (row == null) return Stream.empty();
+
+        return Arrays.stream(row.indices).mapToObj(index -> paths[index]);
+    }
+
+    /**
+     * Called when the command to list the overrides of a player is executed.
+     * @param context the command context
+     * @return the number of overrides of the player
+     */
+    private int list(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        final ServerPlayerEntity player = EntityArgumentType.getPlayer(context, "player");
+        Row row = rows.get(player.getUuid());
+        List<String> entries = new ArrayList<>();
+
+        for (int position = 0; row != null && position < row.indices.length; position++) {
+            int index = row.indices[position];
+            entries.add(paths[index] + "=" + decode(index, row.values[position]));
+        }
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Player: " + player.getName().getString() + " overrides: " + entries).formatted(WHITE),
+                false);
+
+        return entries.size();
+    }
+
+    /**
+     * Called when the command to override a setting for a player is executed.
+     * @param context the command context
+     * @return 15 if the override was set and 0 otherwise
+     */
+    private int set(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        final ServerPlayerEntity player = EntityArgumentType.getPlayer(context, "player");
+        final String path = StringArgumentType.getString(context, "setting");
+        final String text = StringArgumentType.getString(context, "value");
+        ConfigSetting setting = settingsByPath.get(path);
+        Object value = setting != null ? OverrideValues.parse(setting, text) : null;
+
+        if (value == null || !setOverride(player.getUuid(), setting, value)) {
+            context.getSource().sendError(Text.literal("Player: " + player.getName().getString() + " can not override " + path + " with " + text));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Player: " + player.getName().getString() + " overrides " + path + " with: " + text).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+
+    /**
+     * Called when the command to remove the override of a setting for a player is executed.
+     * @param context the command context
+     * @return 15 if the override was removed and 0 otherwise
+     */
+    private int unset(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        final ServerPlayerEntity player = EntityArgumentType.getPlayer(context, "player");
+        final String path = StringArgumentType.getString(context, "setting");
+        ConfigSetting setting = settingsByPath.get(path);
+
+        if (setting == null || !removeOverride(player.getUuid(), setting)) {
+            context.getSource().sendError(Text.literal("Player: " + player.getName().getString() + " does not override " + path));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Player: " + player.getName().getString() + " no longer overrides " + path).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+
+    /**
+     * The overrides of a player as the indices of the overridden settings in ascending order and their raw bits, see {@link #encode(Object)}.
+     * The arrays are replaced when an override is added or removed, which is rare compared to reading.
+     */
+    private static final class Row {
+        private int[] indices = new int[0];
+        private long[] values = new long[0];
+
+        /**
+         * Finds the position of the override of a setting.
+         * @param index the index of a setting of the {@code ConfigManager}, whose identity must be checked by the caller
+         * @return the position of the override or a negative value if the setting is not overridden
+         */
+        int find(int index) {
+            return Arrays.binarySearch(indices, index);
+        }
+
+        void set(int index, long bits) {
+            int position = find(index);
+
+            if (position >= 0) {
+                values[position] = bits;
+                return;
+            }
+
+            position = -position - 1;
+
+            int[] indices = new int[this.indices.length + 1];
+            long[] values = new long[this.values.length + 1];
+            System.arraycopy(this.indices, 0, indices, 0, position);
+            System.arraycopy(this.values, 0, values, 0, position);
+            indices[position] = index;
+            values[position] = bits;
+            System.arraycopy(this.indices, position, indices, position + 1, this.indices.length - position);
+            System.arraycopy(this.values, position, values, position + 1, this.values.length - position);
+
+            this.indices = indices;
+            this.values = values;
+        }
+
+        void remove(int index) {
+            int position = find(index);
+            if (position < 0) return;
+
+            int[] indices = new int[this.indices.length - 1];
+            long[] values = new long[this.values.length - 1];
+            System.arraycopy(this.indices, 0, indices, 0, position);
+            System.arraycopy(this.values, 0, values, 0, position);
+            System.arraycopy(this.indices, position + 1, indices, position, indices.length - position);
+            System.arraycopy(this.values, position + 1, values, position, values.length - position);
+
+            this.indices = indices;
+            this.values = values;
+        }
+
+        boolean isEmpty() {
+            return indices.length == 0;
+        }
+    }
+}
@@ -0,0 +1,664 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.argument.BlockPosArgumentType;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+import static net.minecraft.util.Formatting.WHITE;
+
+/**
+ * Overrides the values of settings inside regions of a world, for example to disable mob griefing around the spawn.
+ * A region is a box of blocks in a dimension with a priority and its own values for some of the int, long, float, double, boolean and enum settings.
+ * Where regions overlap, the region with the highest priority that overrides a setting wins.
+ * <p>
+ * The regions are kept in an index that maps each chunk to the regions overlapping it,
+ * so resolving a setting for a position costs a lookup of the dimension, a {@code long}-keyed hash lookup of the chunk
+ * and a binary search over the overrides of the few regions in that chunk. If there are no regions, the value of the setting is returned right away.
+ * Each region only stores the settings it overrides, so the memory of a region does not depend on the number of settings.
+ * The index is rebuilt and replaced on every change, so it can be read on any thread. Regions should only be changed on the server thread.
+ * <p>
+ * The regions are saved with the world and cleared when the server starts, so regions added by code should be added after the server started.
+ * @see ConfigManager#regions()
+ */
+public final class RegionOverrides {
+    /**
+     * The key of the regions in the saved data, which can not clash with the name of a setting.
+     */
+    private static final String REGIONS_KEY = "#regions";
+
+    /**
+     * The maximum number of chunks a region may overlap, so that a single region can not blow up the index.
+     */
+    private static final int MAX_CHUNKS = 65536;
+
+    private final ConfigSetting[] settings;
+    private final String[] paths;
+    private final Map<String, ConfigSetting> settingsByPath;
+    private final Runnable markDirty;
+
+    /**
+     * The current regions and their index. Replaced on every change.
+     */
+    private volatile Index index = new Index(List.of());
+
+    /**
+     * Creates new {@code RegionOverrides} for the settings of a {@link ConfigManager}. Called when the {@code ConfigManager} is initialized.
+     * @param settings the settings by their index
+     * @param paths the full paths of the settings by their index
+     * @param settingsByPath the settings by their full path
+     * @param markDirty called when a region changed, so that the regions are saved
+     */
+    RegionOverrides(@NotNull ConfigSetting[] settings,
+                    @NotNull String[] paths,
+                    @NotNull Map<String, ConfigSetting> settingsByPath,
+                    @NotNull Runnable markDirty) {
+        this.settings = settings;
+        this.paths = paths;
+        this.settingsByPath = settingsByPath;
+        this.markDirty = markDirty;
+    }
+
+    /**
+     * Gets the value of the setting at the position, which is the value of the region with the highest priority overriding it at the position
+     * or the value of the setting if there is none.
+     * @param setting the setting
+     * @param dimension the dimension of the position, for example {@code world.getRegistryKey()}
+     * @param pos the position
+     * @return the value of the setting at the position
+     */
+    public int get(@NotNull IntConfigSetting setting, @NotNull RegistryKey<World> dimension, @NotNull BlockPos pos) {
+        Object value = isOwnSetting(setting) ? index.find(setting.getIndex(), dimension, pos) : null;
+        return value != null ? (Integer) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting at the position, which is the value of the region with the highest priority overriding it at the position
+     * or the value of the setting if there is none.
+     * @param setting the setting
+     * @param dimension the dimension of the position, for example {@code world.getRegistryKey()}
+     * @param pos the position
+     * @return the value of the setting at the position
+     */
+    public long get(@NotNull LongConfigSetting setting, @NotNull RegistryKey<World> dimension, @NotNull BlockPos pos) {
+        Object value = isOwnSetting(setting) ? index.find(setting.getIndex(), dimension, pos) : null;
+        return value != null ? (Long) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting at the position, which is the value of the region with the highest priority overriding it at the position
+     * or the value of the setting if there is none.
+     * @param setting the setting
+     * @param dimension the dimension of the position, for example {@code world.getRegistryKey()}
+     * @param pos the position
+     * @return the value of the setting at the position
+     */
+    public float get(@NotNull FloatConfigSetting setting, @NotNull RegistryKey<World> dimension, @NotNull BlockPos pos) {
+        Object value = isOwnSetting(setting) ? index.find(setting.getIndex(), dimension, pos) : null;
+        return value != null ? (Float) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting at the position, which is the value of the region with the highest priority overriding it at the position
+     * or the value of the setting if there is none.
+     * @param setting the setting
+     * @param dimension the dimension of the position, for example {@code world.getRegistryKey()}
+     * @param pos the position
+     * @return the value of the setting at the position
+     */
+    public double get(@NotNull DoubleConfigSetting setting, @NotNull RegistryKey<World> dimension, @NotNull BlockPos pos) {
+        Object value = isOwnSetting(setting) ? index.find(setting.getIndex(), dimension, pos) : null;
+        return value != null ? (Double) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting at the position, which is the value of the region with the highest priority overriding it at the position
+     * or the value of the setting if there is none.
+     * @param setting the setting
+     * @param dimension the dimension of the position, for example {@code world.getRegistryKey()}
+     * @param pos the position
+     * @return the value of the setting at the position
+     */
+    public boolean get(@NotNull BoolConfigSetting setting, @NotNull RegistryKey<World> dimension, @NotNull BlockPos pos) {
+        Object value = isOwnSetting(setting) ? index.find(setting.getIndex(), dimension, pos) : null;
+        return value != null ? (Boolean) value : setting.get();
+    }
+
+    /**
+     * Gets the value of the setting at the position, which is the value of the region with the highest priority overriding it at the position
+     * or the value of the setting if there is none.
+     * @param setting the setting
+     * @param dimension the dimension of the position, for example {@code world.getRegistryKey()}
+     * @param pos the position
+     * @return the value of the setting at the position
+     * @param <T> the enum type of the setting
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Enum<T> & EnumSettingType<T>> @NotNull T get(@NotNull EnumConfigSetting<T> setting,
+                                                                   @NotNull RegistryKey<World> dimension,
+                                                                   @NotNull BlockPos pos) {
+        Object value = isOwnSetting(setting) ? index.find(setting.getIndex(), dimension, pos) : null;
+        return value != null ? (T) value : setting.get();
+    }
+
+    /**
+     * Adds a region without overrides. <b>Should only be called on the server thread.</b>
+     * @param name the unique name of the region
+     * @param dimension the dimension of the region
+     * @param from a corner of the region
+     * @param to the opposite corner of the region, inclusive
+     * @param priority the priority of the region, higher priorities win where regions overlap
+     * @return {@code true} if the region was added, {@code false} if there already is a region with the name
+     * @throws IllegalArgumentException if the region overlaps more than 65536 chunks
+     */
+    public boolean addRegion(@NotNull String name, @NotNull RegistryKey<World> dimension, @NotNull BlockPos from, @NotNull BlockPos to, int priority) {
+        Region region = new Region(name, dimension,
+                Math.min(from.getX(), to.getX()), Math.min(from.getY(), to.getY()), Math.min(from.getZ(), to.getZ()),
+                Math.max(from.getX(), to.getX()), Math.max(from.getY(), to.getY()), Math.max(from.getZ(), to.getZ()),
+                priority, new int[0], new Object[0]);
+
+        if (region.chunkCount() > MAX_CHUNKS) throw new IllegalArgumentException("Region " + name + " overlaps more than " + MAX_CHUNKS + " chunks");
+        if (findRegion(name) != null) return false;
+
+        List<Region> regions = new ArrayList<>(index.regions);
+        regions.add(region);
+        update(regions);
+        return true;
+    }
+
+    /**
+     * Removes a region and its overrides. <b>Should only be called on the server thread.</b>
+     * @param name the name of the region
+     * @return {@code true} if the region was removed, {@code false} if there is no region with the name
+     */
+    public boolean removeRegion(@NotNull String name) {
+        List<Region> regions = new ArrayList<>(index.regions);
+
+        if (!regions.removeIf(region -> region.name().equals(name))) return false;
+
+        update(regions);
+        return true;
+    }
+
+    /**
+     * Overrides the value of a setting inside a region. <b>Should only be called on the server thread.</b>
+     * @param name the name of the region
+     * @param setting an int, long, float, double, boolean or enum setting of the {@code ConfigManager}
+     * @param value the value in the same form as in the config file, or the enum constant for enum settings
+     * @return {@code true} if the value was set, {@code false} if there is no region with the name,
+     * the setting can not be overridden or the value is not valid for the setting
+     */
+    public boolean setOverride(@NotNull String name, @NotNull ConfigSetting setting, @NotNull Object value) {
+        Region region = findRegion(name);
+        Object overrideValue = isOwnSetting(setting) ? OverrideValues.toOverrideValue(setting, value) : null;
+
+        if (region == null || overrideValue == null) return false;
+
+        replace(region, region.withValue(setting.getIndex(), overrideValue));
+        return true;
+    }
+
+    /**
+     * Removes the override of a setting inside a region. <b>Should only be called on the server thread.</b>
+     * @param name the name of the region
+     * @param setting the setting
+     * @return {@code true} if the override was removed, {@code false} if there is no region with the name or it does not override the setting
+     */
+    public boolean removeOverride(@NotNull String name, @NotNull ConfigSetting setting) {
+        Region region = findRegion(name);
+
+        if (region == null || !isOwnSetting(setting) || region.value(setting.getIndex()) == null) return false;
+
+        replace(region, region.withValue(setting.getIndex(), null));
+        return true;
+    }
+
+    /**
+     * Gets the names of all regions.
+     * @return the names in the order the regions were added
+     */
+    public @NotNull List<String> getRegionNames() {
+        return index.regions.stream().map(Region::name).toList();
+    }
+
+    /**
+     * Gets the current regions and their index, which does not change anymore and can be written off the server thread.
+     * @return the current index
+     */
+    @NotNull Index index() {
+        return index;
+    }
+
+    /**
+     * Removes all regions without marking them dirty. Called when the server starts and stops.
+     */
+    void clear() {
+        index = new Index(List.of());
+    }
+
+    /**
+     * Stores the regions of the index in the provided NbtCompound. Can be called on any thread.
+     * Overrides are stored by the full path of their setting.
+     * @param index the index to store
+     * @param nbt the NbtCompound to store the regions in
+     */
+    void toNbt(@NotNull Index index, @NotNull NbtCompound nbt) {
+        if (index.regions.isEmpty()) return;
+
+        NbtList list = new NbtList();
+
+        for (Region region : index.regions) {
+            NbtCompound regionNbt = new NbtCompound();
+            NbtCompound values = new NbtCompound();
+
+            regionNbt.putString("name", region.name());
+            regionNbt.putString("dimension", region.dimension().getValue().toString());
+            regionNbt.putIntArray("from", new int[]{region.minX(), region.minY(), region.minZ()});
+            regionNbt.putIntArray("to", new int[]{region.maxX(), region.maxY(), region.maxZ()});
+            regionNbt.putInt("priority", region.priority());
+
+            for (int i = 0; i < region.indices().length; i++) {
+                OverrideValues.toNbt(values, paths[region.indices()[i]], region.values()[i]);
+            }
+
+            regionNbt.put("values", values);
+            list.add(regionNbt);
+        }
+
+        nbt.put(REGIONS_KEY, list);
+    }
+
+    /**
+     * Replaces the regions with the regions in the provided NbtCompound. Should only be called on the server thread.
+     * Overrides of settings that no longer exist or whose value is no longer valid are skipped.
+     * @param nbt the NbtCompound to read the regions from
+     */
+    void fromNbt(@NotNull NbtCompound nbt) {
+        NbtList list = nbt.getList(REGIONS_KEY, NbtElement.COMPOUND_TYPE);
+        List<Region> regions = new ArrayList<>(list.size());
+        Set<String> names = new HashSet<>();
+
+        for (int i = 0; i < list.size(); i++) {
+            NbtCompound regionNbt = list.getCompound(i);
+            Identifier dimension = Identifier.tryParse(regionNbt.getString("dimension"));
+            int[] from = regionNbt.getIntArray("from");
+            int[] to = regionNbt.getIntArray("to");
+
+            if (dimension == null || from.length != 3 || to.length != 3 || !names.add(regionNbt.getString("name"))) continue;
+
+            SortedMap<Integer, Object> values = new TreeMap<>();
+            NbtCompound valuesNbt = regionNbt.getCompound("values");
+
+            for (String path : valuesNbt.getKeys()) {
+                ConfigSetting setting = settingsByPath.get(path);
+                Object value = setting != null ? OverrideValues.fromNbt(valuesNbt, path, setting) : null;
+                if (value != null) values.put(setting.getIndex(), value);
+            }
+
+            regions.add(new Region(regionNbt.getString("name"), RegistryKey.of(RegistryKeys.WORLD, dimension),
+                    from[0], from[1], from[2], to[0], to[1], to[2], regionNbt.getInt("priority"),
+                    values.keySet().stream().mapToInt(Integer::intValue).toArray(), values.values().toArray()));
+        }
+
+        index = new Index(regions);
+    }
+
+    /**
+     * Adds the region command to the command tree.
+     * @param command the base command of the {@code ConfigManager}
+     */
+    void initialize(@NotNull LiteralArgumentBuilder<ServerCommandSource> command) {
+        command.then(literal("region")
+                .then(literal("list")
+                        .executes(this::list))
+                .then(literal("add")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("name", StringArgumentType.word())
+                                .then(argument("from", BlockPosArgumentType.blockPos())
+                                        .then(argument("to", BlockPosArgumentType.blockPos())
+                                                .executes(context -> add(context, 0))
+                                                .then(argument("priority", IntegerArgumentType.integer())
+                                                        .executes(context -> add(context, IntegerArgumentType.getInteger(context, "priority"))))))))
+                .then(literal("remove")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("name", StringArgumentType.word())
+                                .suggests((context, builder) -> CommandSource.suggestMatching(getRegionNames(), builder))
+                                .executes(this::remove)))
+                .then(literal("set")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("name", StringArgumentType.word())
+                                .suggests((context, builder) -> CommandSource.suggestMatching(getRegionNames(), builder))
+                                .then(argument("setting", StringArgumentType.word())
+                                        .suggests((context, builder) -> CommandSource.suggestMatching(overridablePaths(), builder))
+                                        .then(argument("value", StringArgumentType.greedyString())
+                                                .executes(this::set)))))
+                .then(literal("unset")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("name", StringArgumentType.word())
+                                .suggests((context, builder) -> CommandSource.suggestMatching(getRegionNames(), builder))
+                                .then(argument("setting", StringArgumentType.word())
+                                        .suggests((context, builder) -> CommandSource.suggestMatching(overridePaths(StringArgumentType.getString(context, "name")), builder))
+                                        .executes(this::unset))))
+        );
+    }
+
+    /**
+     * Finds a region by its name.
+     * @param name the name of the region
+     * @return the region or {@code null} if there is none with the name
+     */
+    private @Nullable Region findRegion(@NotNull String name) {
+        for (Region region : index.regions) {
+            if (region.name().equals(name)) return region;
+        }
+
+        return null;
+    }
+
+    private void replace(@NotNull Region region, @NotNull Region replacement) {
+        List<Region> regions = new ArrayList<>(index.regions);
+        regions.set(regions.indexOf(region), replacement);
+        update(regions);
+    }
+
+    private void update(@NotNull List<Region> regions) {
+        index = new Index(regions);
+        markDirty.run();
+    }
+
+    private boolean isOwnSetting(@NotNull ConfigSetting setting) {
+        int index = setting.getIndex();
+        return index >= 0 && index < settings.length && settings[index] == setting;
+    }
+
+    private @NotNull Stream<String> overridablePaths() {
+        return Arrays.stream(settings).filter(OverrideValues::isOverridable).map(setting -> paths[setting.getIndex()]);
+    }
+
+    private @NotNull Stream<String> overridePaths(@NotNull String name) {
+        Region region = findRegion(name);
+        if (region == null) return Stream.empty();
+
+        return Arrays.stream(region.indices()).mapToObj(index -> paths[index]);
+    }
+
+    /**
+     * Called when the command to list the regions is executed.
+     * @param context the command context
+     * @return the number of regions
+     */
+    private int list(CommandContext<ServerCommandSource> context) {
+        List<Region> regions = index.regions;
+
+        for (Region region : regions) {
+            context.getSource().sendFeedback(
+                    () -> Text.literal("Region: " + region.name() + " in " + region.dimension().getValue()
+                            + " from " + region.minX() + " " + region.minY() + " " + region.minZ()
+                            + " to " + region.maxX() + " " + region.maxY() + " " + region.maxZ()
+                            + " with priority " + region.priority() + " overrides: " + overridePaths(region.name()).toList()).formatted(WHITE),
+                    false);
+        }
+
+        return regions.size();
+    }
+
+    /**
+     * Called when the command to add a region in the dimension of the command source is executed.
+     * @param context the command context
+     * @param priority the priority of the region
+     * @return 15 if the region was added and 0 otherwise
+     */
+    private int add(CommandContext<ServerCommandSource> context, int priority) throws CommandSyntaxException {
+        final String name = StringArgumentType.getString(context, "name");
+        boolean added;
+
+        try {
+            added = addRegion(name, context.getSource().getWorld().getRegistryKey(),
+                    BlockPosArgumentType.getBlockPos(context, "from"), BlockPosArgumentType.getBlockPos(context, "to"), priority);
+        } catch (IllegalArgumentException e) {
+            context.getSource().sendError(Text.literal(e.getMessage()));
+            return 0;
+        }
+
+        if (!added) {
+            context.getSource().sendError(Text.literal("Region: " + name + " already exists"));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(() -> Text.literal("Region: " + name + " was added").formatted(WHITE), true);
+
+        return 15;
+    }
+
+    /**
+     * Called when the command to remove a region is executed.
+     * @param context the command context
+     * @return 15 if the region was removed and 0 otherwise
+     */
+    private int remove(CommandContext<ServerCommandSource> context) {
+        final String name = StringArgumentType.getString(context, "name");
+
+        if (!removeRegion(name)) {
+            context.getSource().sendError(Text.literal("Region: " + name + " does not exist"));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(() -> Text.literal("Region: " + name + " was removed").formatted(WHITE), true);
+
+        return 15;
+    }
+
+    /**
+     * Called when the command to override a setting inside a region is executed.
+     * @param context the command context
+     * @return 15 if the override was set and 0 otherwise
+     */
+    private int set(CommandContext<ServerCommandSource> context) {
+        final String name = StringArgumentType.getString(context, "name");
+        final String path = StringArgumentType.getString(context, "setting");
+        final String text = StringArgumentType.getString(context, "value");
+        ConfigSetting setting = settingsByPath.get(path);
+        Object value = setting != null ? OverrideValues.parse(setting, text) : null;
+
+        if (value == null || !setOverride(name, setting, value)) {
+            context.getSource().sendError(Text.literal("Region: " + name + " can not override " + path + " with " + text));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Region: " + name + " overrides " + path + " with: " + text).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+
+    /**
+     * Called when the command to remove the override of a setting inside a region is executed.
+     * @param context the command context
+     * @return 15 if the override was removed and 0 otherwise
+     */
+    private int unset(CommandContext<ServerCommandSource> context) {
+        final String name = StringArgumentType.getString(context, "name");
+        final String path = StringArgumentType.getString(context, "setting");
+        ConfigSetting setting = settingsByPath.get(path);
+
+        if (setting == null || !removeOverride(name, setting)) {
+            context.getSource().sendError(Text.literal("Region: " + name + " does not override " + path));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(() -> Text.literal("Region: " + name + " no longer overrides " + path).formatted(WHITE), true);
+
+        return 15;
+    }
+
+    /**
+     * A box of blocks in a dimension with its own values for some settings.
+     * @param indices the indices of the overridden settings in ascending order
+     * @param values the values of the overridden settings in the same order as their indices
+     */
+    private record Region(@NotNull String name, @NotNull RegistryKey<World> dimension,
+                          int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                          int priority, int @NotNull [] indices, @NotNull Object @NotNull [] values) {
+
+        boolean contains(@NotNull BlockPos pos) {
+            int x = pos.getX();
+            int y = pos.getY();
+            int z = pos.getZ();
+
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+
+        boolean hasOverrides() {
+            return indices.length > 0;
+        }
+
+        /**
+         * Gets the value of a setting in the region.
+         * @param index the index of the setting, which may be out of range
+         * @return the value or {@code null} if the region does not override the setting
+         */
+        @Nullable Object value(int index) {
+            int position = Arrays.binarySearch(indices, index);
+            return position >= 0 ? values[position] : null;
+        }
+
+        long chunkCount() {
+            return ((long) (maxX >> 4) - (minX >> 4) + 1) * ((long) (maxZ >> 4) - (minZ >> 4) + 1);
+        }
+
+        /**
+         * Creates a copy of the region with a new value for a setting.
+         * @param index the index of the setting
+         * @param value the new value or {@code null} to remove the override
+         * @return the copy
+         */
+        @NotNull Region withValue(int index, @Nullable Object value) {
+            int position = Arrays.binarySearch(indices, index);
+            int[] indices;
+            Object[] values;
+
+            if (position >= 0 && value != null) {
+                indices = this.indices;
+                values = this.values.clone();
+                values[position] = value;
+            } else if (position >= 0) {
+                indices = new int[this.indices.length - 1];
+                values = new Object[this.values.length - 1];
+                System.arraycopy(this.indices, 0, indices, 0, position);
+                System.arraycopy(this.values, 0, values, 0, position);
+                System.arraycopy(this.indices, position + 1, indices, position, indices.length - position);
+                System.arraycopy(this.values, position + 1, values, position, values.length - position);
+            } else if (value != null) {
+                position = -position - 1;
+                indices = new int[this.indices.length + 1];
+                values = new Object[this.values.length + 1];
+                System.arraycopy(this.indices, 0, indices, 0, position);
+                System.arraycopy(this.values, 0, values, 0, position);
+                indices[position] = index;
+                values[position] = value;
+                System.arraycopy(this.indices, position, indices, position + 1, this.indices.length - position);
+                System.arraycopy(this.values, position, values, position + 1, this.values.length - position);
+            } else {
+                return this;
+            }
+
+            return new Region(name, dimension, minX, minY, minZ, maxX, maxY, maxZ, priority, indices, values);
+        }
+    }
+
+    /**
+     * The regions and a hash grid of the regions with overrides by dimension and chunk. Does not change after it was built.
+     */
+    static final class Index {
+        /**
+         * The regions in the order they were added.
+         */
+        private final List<Region> regions;
+
+        /**
+         * The regions with overrides overlapping each chunk by dimension and {@link ChunkPos#toLong(int, int) chunk key},
+         * sorted by descending priority and then by the order they were added.
+         */
+        private final Map<RegistryKey<World>, Long2ObjectOpenHashMap<Region[]>> cells = new HashMap<>();
+
+        private Index(@NotNull List<Region> regions) {
+            this.regions = List.copyOf(regions);
+
+            List<Region> sorted = new ArrayList<>(regions);
+            sorted.sort(Comparator.comparingInt(Region::priority).reversed());
+
+            Map<RegistryKey<World>, Long2ObjectOpenHashMap<List<Region>>> lists = new HashMap<>();
+
+            for (Region region : sorted) {
+                if (!region.hasOverrides()) continue;
+
+                Long2ObjectOpenHashMap<List<Region>> dimensionLists = lists.computeIfAbsent(region.dimension(), dimension -> new Long2ObjectOpenHashMap<>());
+
+                for (int chunkX = region.minX() >> 4; chunkX <= region.maxX() >> 4; chunkX++) {
+                    for (int chunkZ = region.minZ() >> 4; chunkZ <= region.maxZ() >> 4; chunkZ++) {
+                        long key = ChunkPos.toLong(chunkX, chunkZ);
+                        List<Region> list = dimensionLists.get(key);
+
+                        if (list == null) dimensionLists.put(key, list = new ArrayList<>(1));
+                        list.add(region);
+                    }
+                }
+            }
+
+            lists.forEach((dimension, dimensionLists) -> {
+                Long2ObjectOpenHashMap<Region[]> dimensionCells = new Long2ObjectOpenHashMap<>(dimensionLists.size());
+                dimensionLists.forEach((key, list) -> dimensionCells.put((long) key, list.toArray(Region[]::new)));
+                cells.put(dimension, dimensionCells);
+            });
+        }
+
+        /**
+         * Finds the value of the region with the highest priority overriding the setting at the position.
+         * @param setting the index of a setting of the {@code ConfigManager}, whose identity must be checked by the caller,
+         *                since settings of other managers may have an index in range
+         * @param dimension the dimension of the position
+         * @param pos the position
+         * @return the value of the region or {@code null} if no region overrides the setting at the position
+         */
+        @Nullable Object find(int setting, @NotNull RegistryKey<World> dimension, @NotNull BlockPos pos) {
+            if (cells.isEmpty()) return null;
+
+            Long2ObjectOpenHashMap<Region[]> dimensionCells = cells.get(dimension);
+            if (dimensionCells == null) return null;
+
+            Region[] regions = dimensionCells.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+            if (regions == null) return null;
+
+            for (Region region : regions) {
+                Object value = region.value(setting);
+                if (value != null && region.contains(pos)) return value;
+            }
+
+            return null;
+        }
+    }
+}
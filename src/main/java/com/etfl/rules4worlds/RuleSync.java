@@ -0,0 +1,368 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Syncs the values of the settings marked with {@link ConfigManager#sync(ConfigSetting...)} from the server to the clients.
+ * Each synced setting gets a slot. A joining player receives the values of all slots, afterward all players receive
+ * the slots that changed during a tick, once at the end of the tick.
+ * <p>
+ * A full payload contains a fingerprint of the synced paths and types followed by the value of every slot.
+ * A delta payload contains a bitset of the changed slots followed by their values.
+ * Ints, longs and enum ordinals are written as zigzag varints, floats and doubles as their raw bits and booleans as single bytes.
+ */
+final class RuleSync {
+    static final byte FULL = 0;
+    static final byte DELTA = 1;
+
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte FLOAT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte ENUM = 6;
+
+    private final String modID;
+
+    /**
+     * The synced settings by their slot.
+     */
+    private final ConfigSetting[] settings;
+
+    /**
+     * The type of each slot.
+     */
+    private final byte[] types;
+
+    /**
+     * The slot of each setting by its index, {@code -1} for settings that are not synced.
+     */
+    private final int[] slots;
+
+    /**
+     * The constants of the enum slots, {@code null} for other slots. Used to decode ordinals without allocating.
+     */
+    private final Enum<?>[][] enumConstants;
+
+    private final long fingerprint;
+
+    /**
+     * The values the clients received last by slot, as raw bits.
+     */
+    private long[] sent;
+
+    /**
+     * The snapshot the values were last synced from.
+     */
+    private ConfigSnapshot syncedSnapshot = null;
+
+    /**
+     * Creates the sync of the given settings.
+     * @param modID the modID of the {@code ConfigManager}, which identifies the payloads
+     * @param settings all settings of the {@code ConfigManager} by their index
+     * @param paths the full paths of the settings by their index
+     * @param synced the settings to sync in the order they were marked
+     * @throws IllegalStateException if a setting does not belong to the {@code ConfigManager} or can not be synced
+     */
+    RuleSync(@NotNull String modID, @NotNull ConfigSetting[] settings, @NotNull String[] paths, @NotNull List<ConfigSetting> synced) {
+        this.modID = modID;
+        this.settings = synced.stream().distinct().toArray(ConfigSetting[]::new);
+        this.types = new byte[this.settings.length];
+        this.slots = new int[settings.length];
+        this.enumConstants = new Enum<?>[this.settings.length][];
+        this.sent = new long[this.settings.length];
+
+        Arrays.fill(slots, -1);
+        long fingerprint = 0xcbf29ce484222325L;
+
+        for (int slot = 0; slot < this.settings.length; slot++) {
+            ConfigSetting setting = this.settings[slot];
+            int index = setting.getIndex();
+
+            if (index < 0 || index >= settings.length || settings[index] != setting)
+                throw new IllegalStateException("Setting " + setting.getName() + " can not be synced, it is not part of config " + modID);
+
+            types[slot] = switch (setting) {
+                case IntConfigSetting ignored -> INT;
+                case LongConfigSetting ignored -> LONG;
+                case FloatConfigSetting ignored -> FLOAT;
+                case DoubleConfigSetting ignored -> DOUBLE;
+                case BoolConfigSetting ignored -> BOOLEAN;
+                case EnumConfigSetting<?> enumSetting -> {
+                    enumConstants[slot] = enumSetting.get().getDeclaringClass().getEnumConstants();
+                    yield ENUM;
+                }
+                default -> throw new IllegalStateException("Setting " + paths[index] + " of config " + modID + " can not be synced");
+            };
+
+            slots[index] = slot;
+            fingerprint = hash(hash(fingerprint, paths[index]), types[slot]);
+            if (enumConstants[slot] != null) fingerprint = hash(fingerprint, enumConstants[slot].length);
+        }
+
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Checks if no setting is synced.
+     * @return {@code true} if no setting is synced, {@code false} otherwise
+     */
+    boolean isEmpty() {
+        return settings.length == 0;
+    }
+
+    /**
+     * Gets the slot of a setting. Settings of other managers are recognized by identity, since their index may belong to a synced setting.
+     * @param setting the setting
+     * @return the slot of the setting or {@code -1} if it is not synced
+     */
+    int slot(@NotNull ConfigSetting setting) {
+        int index = setting.getIndex();
+        int slot = index >= 0 && index < slots.length ? slots[index] : -1;
+        return slot >= 0 && settings[slot] == setting ? slot : -1;
+    }
+
+    /**
+     * Gets the enum constant of an ordinal received for a slot.
+     * @param slot the slot of an enum setting
+     * @param ordinal the ordinal
+     * @return the enum constant
+     */
+    @NotNull Enum<?> constant(int slot, long ordinal) {
+        return enumConstants[slot][(int) ordinal];
+    }
+
+    /**
+     * Makes the values of the snapshot the values the clients have. Called when the server starts, before any player joined.
+     * @param snapshot the snapshot of the settings
+     */
+    void reset(@NotNull ConfigSnapshot snapshot) {
+        sent = values(snapshot);
+        syncedSnapshot = snapshot;
+    }
+
+    /**
+     * Sends the values of all slots to a player that joined, if it has the mod installed.
+     * @param player the player
+     * @param snapshot the current snapshot of the settings
+     */
+    void sendFull(@NotNull ServerPlayerEntity player, @NotNull ConfigSnapshot snapshot) {
+        if (isEmpty() || !ServerPlayNetworking.canSend(player, RuleSyncPayload.ID)) return;
+
+        ServerPlayNetworking.send(player, new RuleSyncPayload(modID, full(snapshot)));
+    }
+
+    /**
+     * Sends the slots that changed since the last sync to all players that have the mod installed. Called at the end of every tick.
+     * @param server the server
+     * @param snapshot the current snapshot of the settings
+     */
+    void tick(@NotNull MinecraftServer server, @NotNull ConfigSnapshot snapshot) {
+        if (isEmpty() || snapshot == syncedSnapshot) return;
+
+        byte[] delta = delta(snapshot);
+        if (delta == null) return;
+
+        RuleSyncPayload payload = new RuleSyncPayload(modID, delta);
+
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            if (ServerPlayNetworking.canSend(player, RuleSyncPayload.ID)) ServerPlayNetworking.send(player, payload);
+        }
+    }
+
+    /**
+     * Encodes the values of all slots.
+     * @param snapshot the snapshot of the settings
+     * @return the full payload
+     */
+    byte @NotNull [] full(@NotNull ConfigSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FULL);
+            out.writeLong(fingerprint);
+
+            for (int slot = 0; slot < settings.length; slot++) writeValue(out, slot, bits(snapshot, slot));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes the slots whose value changed since the last sync and makes the values of the snapshot the values the clients have.
+     * @param snapshot the snapshot of the settings
+     * @return the delta payload or {@code null} if no slot changed
+     */
+    byte @Nullable [] delta(@NotNull ConfigSnapshot snapshot) {
+        long[] values = values(snapshot);
+        BitSet changed = new BitSet(settings.length);
+
+        for (int slot = 0; slot < settings.length; slot++) {
+            if (values[slot] != sent[slot]) changed.set(slot);
+        }
+
+        sent = values;
+        syncedSnapshot = snapshot;
+
+        if (changed.isEmpty()) return null;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            byte[] bitset = changed.toByteArray();
+
+            out.writeByte(DELTA);
+            writeVarLong(out, bitset.length);
+            out.write(bitset);
+
+            for (int slot = changed.nextSetBit(0); slot >= 0; slot = changed.nextSetBit(slot + 1)) writeValue(out, slot, values[slot]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Applies a full or delta payload to the values a client has.
+     * @param data the payload
+     * @param values the values of the client by slot, {@code null} if it did not receive a full payload yet
+     * @return the new values by slot or {@code null} if the payload does not match the synced settings or can not be applied
+     */
+    long @Nullable [] apply(byte @NotNull [] data, long @Nullable [] values) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte kind = in.readByte();
+
+            if (kind == FULL) {
+                if (in.readLong() != fingerprint) return null;
+
+                long[] received = new long[settings.length];
+                for (int slot = 0; slot < settings.length; slot++) received[slot] = readValue(in, slot);
+
+                return received;
+            }
+
+            if (kind != DELTA || values == null) return null;
+
+            byte[] bitset = new byte[(int) readVarLong(in)];
+            in.readFully(bitset);
+
+            BitSet changed = BitSet.valueOf(bitset);
+            if (changed.length() > settings.length) return null;
+
+            long[] received = values.clone();
+            for (int slot = changed.nextSetBit(0); slot >= 0; slot = changed.nextSetBit(slot + 1)) received[slot] = readValue(in, slot);
+
+            return received;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the raw bits of the values of all slots in the snapshot.
+     * @param snapshot the snapshot of the settings
+     * @return the values by slot
+     */
+    private long @NotNull [] values(@NotNull ConfigSnapshot snapshot) {
+        long[] values = new long[settings.length];
+
+        for (int slot = 0; slot < settings.length; slot++) values[slot] = bits(snapshot, slot);
+
+        return values;
+    }
+
+    private long bits(@NotNull ConfigSnapshot snapshot, int slot) {
+        return switch (settings[slot]) {
+            case IntConfigSetting setting -> snapshot.get(setting);
+            case LongConfigSetting setting -> snapshot.get(setting);
+            case FloatConfigSetting setting -> Float.floatToRawIntBits(snapshot.get(setting));
+            case DoubleConfigSetting setting -> Double.doubleToRawLongBits(snapshot.get(setting));
+            case BoolConfigSetting setting -> snapshot.get(setting) ? 1 : 0;
+            case EnumConfigSetting<?> setting -> snapshot.get(setting).ordinal();
+            default -> 0;
+        };
+    }
+
+    private void writeValue(@NotNull DataOutputStream out, int slot, long bits) throws IOException {
+        switch (types[slot]) {
+            case FLOAT -> out.writeInt((int) bits);
+            case DOUBLE -> out.writeLong(bits);
+            case BOOLEAN -> out.writeByte((int) bits);
+            default -> writeVarLong(out, bits << 1 ^ bits >> 63);
+        }
+    }
+
+    private long readValue(@NotNull DataInputStream in, int slot) throws IOException {
+        return switch (types[slot]) {
+            case FLOAT -> in.readInt();
+            case DOUBLE -> in.readLong();
+            case BOOLEAN -> in.readByte() != 0 ? 1 : 0;
+            case ENUM -> {
+                long ordinal = readZigZag(in);
+                if (ordinal < 0 || ordinal >= enumConstants[slot].length) throw new IOException("Unknown ordinal " + ordinal);
+                yield ordinal;
+            }
+            default -> readZigZag(in);
+        };
+    }
+
+    private static long readZigZag(@NotNull DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static void writeVarLong(@NotNull DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(@NotNull DataInputStream in) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+
+        throw new IOException("VarLong is too long");
+    }
+
+    /**
+     * Mixes the characters of a string into a 64-bit FNV-1a hash.
+     */
+    private static long hash(long hash, @NotNull String value) {
+        for (int i = 0; i < value.length(); i++) hash = hash(hash, value.charAt(i));
+
+        return hash;
+    }
+
+    /**
+     * Mixes a value into a 64-bit FNV-1a hash.
+     */
+    private static long hash(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,40 @@
+package com.etfl.rules4worlds;
+
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A full or delta payload of the synced settings of a {@link ConfigManager}, see {@link RuleSync}.
+ * @param modID the modID of the {@code ConfigManager}
+ * @param data the encoded values
+ */
+public record RuleSyncPayload(@NotNull String modID, byte @NotNull [] data) implements CustomPayload {
+    public static final CustomPayload.Id<RuleSyncPayload> ID = new CustomPayload.Id<>(new Identifier("rules4worlds", "sync"));
+    public static final PacketCodec<RegistryByteBuf, RuleSyncPayload> CODEC = PacketCodec.tuple(
+            PacketCodecs.STRING, RuleSyncPayload::modID,
+            PacketCodecs.BYTE_ARRAY, RuleSyncPayload::data,
+            RuleSyncPayload::new);
+
+    private static boolean registered = false;
+
+    @Override
+    public @NotNull Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    /**
+     * Registers the payload type, if it was not registered yet.
+     * Called when a {@code ConfigManager} with synced settings is initialized and when the client is initialized.
+     */
+    static synchronized void register() {
+        if (registered) return;
+
+        PayloadTypeRegistry.playS2C().register(ID, CODEC);
+        registered = true;
+    }
+}
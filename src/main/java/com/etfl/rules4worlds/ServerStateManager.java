@@ -1,22 +1,76 @@
 package com.etfl.rules4worlds;
 
+import com.etfl.rules4worlds.settings.ConfigSetting;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtSizeTracker;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.WorldSavePath;
 import net.minecraft.world.PersistentState;
 import net.minecraft.world.PersistentStateManager;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
+/**
+ * Saves the values of the settings with the world.
+ * When the world is saved, the values are captured on the server thread and written to the data file in the background.
+ */
 class ServerStateManager extends PersistentState {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Rules4Worlds");
+
+    /**
+     * Builds and writes the data files and appends to the journal in the background.
+     */
+    private static final Executor SAVE_EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("Rules4Worlds state writer").factory());
 
     /**
      * The linked config manager for the server.
      */
     private final ConfigManager configManager;
 
+    /**
+     * The number of saves that were skipped because no setting changed since the last save.
+     */
+    private long skippedSaves = 0;
+
+    /**
+     * The save or journal records that are being written or were written last.
+     * Saves and records are chained, so they are written in the order they were captured.
+     */
+    private CompletableFuture<Void> pendingSave = CompletableFuture.completedFuture(null);
+
+    /**
+     * The last save, {@code null} if the state has not been saved yet.
+     */
+    private Save lastSave = null;
+
+    /**
+     * The number of journal records after which the journal is compacted on the next save.
+     */
+    private static final int COMPACTION_THRESHOLD = 4096;
+
+    /**
+     * The journal the changes are appended to, {@code null} if every change is saved by rewriting the data file.
+     */
+    private ConfigJournal journal = null;
+
     /**
      * Creates a new {@code ServerStateManager} object with the provided {@link ConfigManager}.
      * @param configManager the config manager to link the {@code ServerStateManager} to
@@ -32,6 +86,168 @@ class ServerStateManager extends PersistentState {
         return nbt;
     }
 
+    /**
+     * Saves the state to the given file if a setting changed since the last save.
+     * Only captures a snapshot of the values on the server thread, building the NBT data and compressing it happens in the background.
+     * If the values can not be written from a snapshot, the NBT data is built on the server thread and only compressed in the background.
+     * Counts the saves that were skipped because nothing changed. The changed player overrides are written with every save.
+     * @param file the file to save the state to
+     * @param registryLookup the registry lookup
+     */
+    @Override
+    public void save(File file, RegistryWrapper.WrapperLookup registryLookup) {
+        configManager.players().saveDirty();
+
+        if (!isDirty()) {
+            skippedSaves++;
+            return;
+        }
+
+        if (journal != null) {
+            journal.resetRecords();
+            pendingSave = pendingSave.thenRunAsync(journal::rotate, SAVE_EXECUTOR);
+        }
+
+        ConfigSnapshot snapshot = configManager.captureSnapshot();
+        NbtCompound prebuiltData = configManager.canWriteSnapshots() ? null : writeNbt(new NbtCompound(), registryLookup);
+        Save save = new Save(file.toPath(), snapshot, configManager.regions().index(), configManager.dimensions().overrides(), prebuiltData);
+
+        setDirty(false);
+        lastSave = save;
+        pendingSave = pendingSave.thenRunAsync(() -> {
+            if (write(save) && journal != null) journal.finishCompaction();
+        }, SAVE_EXECUTOR);
+    }
+
+    /**
+     * Blocks until all saves and journal records are written.
+     */
+    void flush() {
+        pendingSave.join();
+    }
+
+    /**
+     * Blocks until all saves are written and closes the journal. Called when the server stops.
+     */
+    void close() {
+        flush();
+
+        if (journal != null) journal.close();
+    }
+
+    /**
+     * Called when the value of a setting changed.
+     * Marks the state dirty, unless the changes are appended to the journal.
+     */
+    void onSettingChanged() {
+        if (journal == null) markDirty();
+    }
+
+    /**
+     * Appends the changes of a tick to the journal, if journaling is enabled.
+     * The records are encoded on the server thread and written in the background after the pending saves.
+     * Marks the state dirty once the journal is long enough to be compacted on the next save.
+     * @param changes the changes of the tick
+     */
+    void journal(@NotNull List<SettingChange> changes) {
+        if (journal == null) return;
+
+        byte[] encoded = journal.encode(changes, configManager::getPath);
+        pendingSave = pendingSave.thenRunAsync(() -> journal.write(encoded), SAVE_EXECUTOR);
+
+        if (journal.records() >= COMPACTION_THRESHOLD) markDirty();
+    }
+
+    /**
+     * Makes the next save compact the journal, if it is not empty. Called when the server is stopping, so that the journal is compacted on a clean shutdown.
+     */
+    void compactOnNextSave() {
+        if (journal != null && journal.records() > 0) markDirty();
+    }
+
+    /**
+     * Waits for the last save to be written and checks that the data file contains the values of the snapshot taken when the world was saved.
+     * @return {@code true} if the file matches the snapshot or the state has not been saved yet, {@code false} otherwise
+     */
+    boolean verifyLastSave() {
+        flush();
+
+        Save save = lastSave;
+        if (save == null) return true;
+
+        try {
+            NbtCompound nbt = NbtIo.readCompressed(save.path(), NbtSizeTracker.ofUnlimitedBytes());
+
+            return nbt.getCompound("data").equals(data(save));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read saved rules from {}", save.path(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the NBT data of a save. Builds it from the snapshot if it was not built on the server thread.
+     * @param save the save
+     * @return the NBT data
+     */
+    private @NotNull NbtCompound data(@NotNull Save save) {
+        if (save.prebuiltData() != null) return save.prebuiltData();
+
+        NbtCompound data = new NbtCompound();
+        configManager.toNbt(save.snapshot(), save.regions(), save.dimensions(), data);
+        return data;
+    }
+
+    /**
+     * Builds the NBT data of the save and writes it to the data file. Called on the save executor.
+     * @param save the save to write
+     * @return {@code true} if the file was written, {@code false} otherwise
+     */
+    private boolean write(@NotNull Save save) {
+        try {
+            NbtCompound nbt = new NbtCompound();
+            nbt.put("data", data(save));
+            NbtHelper.putDataVersion(nbt);
+
+            NbtIo.writeCompressed(nbt, save.path());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to save rules to {}", save.path(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of saves that were skipped because no setting changed since the last save.
+     * @return the number of skipped saves
+     */
+    long getSkippedSaves() {
+        return skippedSaves;
+    }
+
+    /**
+     * A save of the state.
+     * @param path the path of the data file
+     * @param snapshot the values of the settings when the world was saved
+     * @param regions the region overrides when the world was saved
+     * @param dimensions the dimension overrides when the world was saved
+     * @param prebuiltData the NBT data built on the server thread, {@code null} if it is built from the snapshot
+     */
+    private record Save(@NotNull Path path, @NotNull ConfigSnapshot snapshot, @NotNull RegionOverrides.Index regions,
+                        @NotNull Map<RegistryKey<World>, Object[]> dimensions, @Nullable NbtCompound prebuiltData) {}
+
+    /**
+     * Creates a new {@code ServerStateManager} for a world without saved data.
+     * Marks it dirty, so that the current values are saved with the world.
+     * @param configManager the config manager to link the {@code ServerStateManager} to
+     * @return a new {@code ServerStateManager}
+     */
+    private static ServerStateManager create(ConfigManager configManager) {
+        var state = new ServerStateManager(configManager);
+        state.markDirty();
+        return state;
+    }
+
     /**
      * Creates a {@code ServerStateManager} from the given NBT data.
      * @param nbt the NBT data to create the {@code ServerStateManager} from
@@ -45,6 +261,7 @@ class ServerStateManager extends PersistentState {
 
     /**
      * Used to get the {@code ServerStateManager} for the server.
+     * If journaling is enabled, the changes in the journal are applied after the saved data was loaded.
      * @param server a server instance
      * @param configManager the config manager that calls this method
      * @return a {@code ServerStateManager}
@@ -55,14 +272,17 @@ class ServerStateManager extends PersistentState {
 
         PersistentStateManager persistentStateManager = world.getPersistentStateManager();
 
-        var state = persistentStateManager.getOrCreate(
+        ServerStateManager state = persistentStateManager.getOrCreate(
                 new Type<>(
-                        () -> new ServerStateManager(configManager),
+                        () -> ServerStateManager.create(configManager),
                         (nbt, registryLookup) -> ServerStateManager.fromNbt(nbt, configManager),
                         null
                 ), configManager.modID + "_rules");
 
-        state.markDirty();
+        if (configManager.usesJournal() && state.journal == null) {
+            state.journal = new ConfigJournal(server.getSavePath(WorldSavePath.ROOT).resolve("data").resolve(configManager.modID + "_rules.journal"));
+            state.journal.replay(path -> configManager.getSetting(path, ConfigSetting.class));
+        }
 
         return state;
     }
@@ -0,0 +1,14 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.ConfigSetting;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A change of the value of a setting during a tick.
+ * If a setting changed multiple times during the tick, the change contains the value before the first and after the last change.
+ * @param setting the setting that changed
+ * @param oldValue the value before the change
+ * @param newValue the value after the change
+ */
+public record SettingChange(@NotNull ConfigSetting setting, @NotNull Object oldValue, @NotNull Object newValue) {
+}
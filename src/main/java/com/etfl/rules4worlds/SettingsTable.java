@@ -0,0 +1,104 @@
+package com.etfl.rules4worlds;
+
+import com.etfl.rules4worlds.settings.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A backing store that packs the values of the int, long, float, double and boolean settings of a {@link ConfigManager}
+ * into primitive arrays. Numbers are stored as raw bits in a {@code long[]} and booleans in a bitset, both indexed by the index of the setting.
+ * Bound settings only hold their index as slot into the table and no longer use their own field,
+ * so taking a snapshot and writing the compact NBT data only copy the two arrays.
+ * <p>
+ * Only created by the {@code ConfigManager}, see {@link ConfigManager#useSettingsTable()}.
+ * Like the fields of the settings, the arrays are only written on the server thread with release semantics and read with acquire semantics.
+ */
+public final class SettingsTable {
+    private static final VarHandle ELEMENT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The raw bits of the numeric settings by their index.
+     */
+    private final long[] numbers;
+
+    /**
+     * The values of the boolean settings as a bitset by their index.
+     */
+    private final long[] flags;
+
+    /**
+     * Creates a new table for the given settings and binds all settings of a supported type to it.
+     * Other settings keep storing their value themselves.
+     * @param settings the settings by their index
+     */
+    SettingsTable(@NotNull ConfigSetting[] settings) {
+        this.numbers = new long[settings.length];
+        this.flags = new long[(settings.length + 63) >>> 6];
+
+        for (ConfigSetting setting : settings) {
+            switch (setting) {
+                case IntConfigSetting intSetting -> intSetting.bind(this);
+                case LongConfigSetting longSetting -> longSetting.bind(this);
+                case FloatConfigSetting floatSetting -> floatSetting.bind(this);
+                case DoubleConfigSetting doubleSetting -> doubleSetting.bind(this);
+                case BoolConfigSetting boolSetting -> boolSetting.bind(this);
+                default -> {}
+            }
+        }
+    }
+
+    /**
+     * Copies the raw bits of the numeric settings. Should only be called on the server thread.
+     * @return the raw bits of the numeric settings by their index
+     */
+    long @NotNull [] copyNumbers() {
+        return numbers.clone();
+    }
+
+    /**
+     * Copies the values of the boolean settings. Should only be called on the server thread.
+     * @return the values of the boolean settings as a bitset by their index
+     */
+    long @NotNull [] copyFlags() {
+        return flags.clone();
+    }
+
+    /**
+     * Gets the raw bits stored in a slot of the numbers.
+     * @param slot the index of the setting
+     * @return the raw bits of the value
+     */
+    public long getBits(int slot) {
+        return (long) ELEMENT.getAcquire(numbers, slot);
+    }
+
+    /**
+     * Stores the raw bits of a value in a slot of the numbers. Should only be called on the server thread by the bound setting.
+     * @param slot the index of the setting
+     * @param bits the raw bits of the value
+     */
+    public void setBits(int slot, long bits) {
+        ELEMENT.setRelease(numbers, slot, bits);
+    }
+
+    /**
+     * Gets the value stored in a slot of the flags.
+     * @param slot the index of the setting
+     * @return the value
+     */
+    public boolean getFlag(int slot) {
+        return ((long) ELEMENT.getAcquire(flags, slot >>> 6) & (1L << slot)) != 0;
+    }
+
+    /**
+     * Stores a value in a slot of the flags. Should only be called on the server thread by the bound setting.
+     * @param slot the index of the setting
+     * @param value the value
+     */
+    public void setFlag(int slot, boolean value) {
+        long word = flags[slot >>> 6];
+        ELEMENT.setRelease(flags, slot >>> 6, value ? word | (1L << slot) : word & ~(1L << slot));
+    }
+}
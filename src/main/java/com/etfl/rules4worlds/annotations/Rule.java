@@ -0,0 +1,38 @@
+package com.etfl.rules4worlds.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a static field of a {@link RuleCategory} class as a setting.
+ * The annotation processor generates the matching setting, using the initial value of the field as default value.
+ * Every new value of the setting is written to the field, so reading the setting is a plain static field read.
+ * The field must be static, not final and not private.
+ * Supported types are {@code int}, {@code long}, {@code float}, {@code double}, {@code boolean}
+ * and enums implementing {@link com.etfl.rules4worlds.settings.EnumSettingType EnumSettingType}.
+ * <p>
+ * The field is written on the server thread, so it should be volatile if it is read on other threads.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Rule {
+    /**
+     * The name of the setting. Defaults to the name of the field.
+     * @return the name of the setting
+     */
+    String name() default "";
+
+    /**
+     * The minimum value of a numeric setting. Must be a whole number for {@code int} and {@code long} fields.
+     * @return the minimum value
+     */
+    double min() default Double.NEGATIVE_INFINITY;
+
+    /**
+     * The maximum value of a numeric setting. Must be a whole number for {@code int} and {@code long} fields.
+     * @return the maximum value
+     */
+    double max() default Double.POSITIVE_INFINITY;
+}
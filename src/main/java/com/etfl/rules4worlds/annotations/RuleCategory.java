@@ -0,0 +1,35 @@
+package com.etfl.rules4worlds.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose {@link Rule} fields form a {@link com.etfl.rules4worlds.categories.SimpleConfigCategory SimpleConfigCategory}.
+ * For a top level class, the annotation processor generates a class named like the annotated class with the suffix {@code Config},
+ * whose {@code create()} method builds the category. Nested classes with this annotation become nested categories.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * @RuleCategory("mobs")
+ * public class MobRules {
+ *     @Rule(min = 0, max = 200)
+ *     public static int maxPerChunk = 70;
+ *
+ *     @Rule
+ *     public static boolean enabled = true;
+ * }
+ *
+ * configManager.add(MobRulesConfig.create());
+ * }</pre>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface RuleCategory {
+    /**
+     * The name of the category. Defaults to the name of the class starting with a lowercase letter.
+     * @return the name of the category
+     */
+    String value() default "";
+}
@@ -1,13 +1,19 @@
 package com.etfl.rules4worlds.categories;
 
+import com.etfl.rules4worlds.ConfigChangeListener;
 import com.etfl.rules4worlds.ConfigComponent;
+import com.etfl.rules4worlds.SettingChange;
+import com.etfl.rules4worlds.settings.ConfigSetting;
+import com.google.gson.stream.JsonReader;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.command.ServerCommandSource;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 import static net.minecraft.server.command.CommandManager.literal;
@@ -36,6 +42,16 @@ public class SimpleConfigCategory implements ConfigCategory {
      */
     private Supplier<Map<String, Object>> reset = Map::of;
 
+    /**
+     * The listeners that are notified about changes of the settings within this category.
+     */
+    private final List<ConfigChangeListener> listeners = new ArrayList<>();
+
+    /**
+     * The direct and indirect settings of this category by identity. Determined on the first dispatch.
+     */
+    private Set<ConfigSetting> settings = null;
+
     /**
      * Creates a new {@code ConfigCategory} object with the provided name and uses it for the commandName.
      * @param name the name of the category
@@ -61,6 +77,16 @@ public class SimpleConfigCategory implements ConfigCategory {
         return this;
     }
 
+    /**
+     * Adds a listener that is notified at the end of every tick in which a direct or indirect setting of this category changed.
+     * @param listener the listener to add
+     * @return the category for chaining
+     */
+    public @NotNull SimpleConfigCategory addListener(@NotNull ConfigChangeListener listener) {
+        listeners.add(listener);
+        return this;
+    }
+
     @Override
     public @NotNull String getName() {
         return name;
@@ -134,6 +160,16 @@ public class SimpleConfigCategory implements ConfigCategory {
         return !(new ArrayList<>(categoryMap.keySet()).equals(new ArrayList<>(map.keySet())));
     }
 
+    @Override
+    public boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        Map<String, Object> categoryMap = new LinkedHashMap<>();
+
+        if (!ConfigComponent.readJsonObject(components, reader, categoryMap)) return false;
+
+        map.put(name, categoryMap);
+        return true;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void fromMap(@NotNull Map<String, Object> map) {
@@ -142,6 +178,23 @@ public class SimpleConfigCategory implements ConfigCategory {
         components.forEach(component -> component.fromMap(categoryMap));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean applyChanges(@NotNull Map<String, Object> oldMap, @NotNull Map<String, Object> newMap) {
+        Map<String, Object> oldCategoryMap = (Map<String, Object>) oldMap.getOrDefault(name, Map.of());
+        Map<String, Object> newCategoryMap = (Map<String, Object>) newMap.getOrDefault(name, Map.of());
+
+        if (oldCategoryMap.equals(newCategoryMap)) return false;
+
+        boolean changed = false;
+
+        for (ConfigComponent component : components) {
+            changed |= component.applyChanges(oldCategoryMap, newCategoryMap);
+        }
+
+        return changed;
+    }
+
     /**
      * Set the value of the settings to the default value.
      */
@@ -149,6 +202,30 @@ public class SimpleConfigCategory implements ConfigCategory {
         fromMap(reset.get());
     }
 
+    @Override
+    public void forEachSetting(@NotNull String parentPath, @NotNull BiConsumer<String, ConfigSetting> consumer) {
+        String path = ConfigComponent.childPath(parentPath, name);
+        components.forEach(component -> component.forEachSetting(path, consumer));
+    }
+
+    @Override
+    public void dispatchChanges(@NotNull List<SettingChange> changes) {
+        if (settings == null) {
+            Set<ConfigSetting> settings = Collections.newSetFromMap(new IdentityHashMap<>());
+            forEachSetting("", (path, setting) -> settings.add(setting));
+            this.settings = settings;
+        }
+
+        List<SettingChange> categoryChanges = changes.stream()
+                .filter(change -> settings.contains(change.setting()))
+                .toList();
+
+        if (categoryChanges.isEmpty()) return;
+
+        listeners.forEach(listener -> listener.onChange(categoryChanges));
+        components.forEach(component -> component.dispatchChanges(categoryChanges));
+    }
+
     @Override
     public void setMarkDirtyRunnable(@NotNull Runnable runnable) {
         components.forEach(component -> component.setMarkDirtyRunnable(runnable));
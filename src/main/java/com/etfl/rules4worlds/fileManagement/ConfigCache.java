@@ -0,0 +1,198 @@
+package com.etfl.rules4worlds.fileManagement;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * A binary sidecar of a validated config, stored next to the config file.
+ * The sidecar is keyed by the hash of the config file and a fingerprint of the config's schema,
+ * so it is only used while neither the file nor the components changed.
+ * Reading the sidecar skips parsing and validating the config file.
+ */
+class ConfigCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Rules4Worlds");
+
+    /**
+     * Identifies a config cache file, "R4WC" in ASCII.
+     */
+    private static final int MAGIC = 0x52345743;
+
+    /**
+     * The version of the binary format. Caches of other versions are ignored.
+     */
+    private static final byte VERSION = 2;
+
+    private static final byte MAP = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte FLOAT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte STRING = 6;
+    private static final byte LIST = 7;
+
+    private final Path path;
+
+    /**
+     * Writes the sidecar in the background, so that getting the config never blocks on writing the cache.
+     */
+    private final ConfigFileWriter writer;
+
+    /**
+     * Creates a new {@code ConfigCache} for the given config file.
+     * @param configPath the path of the config file
+     */
+    ConfigCache(@NotNull Path configPath) {
+        this.path = configPath.resolveSibling(configPath.getFileName() + ".cache");
+        this.writer = new ConfigFileWriter(path, (content, attributes) -> {});
+    }
+
+    /**
+     * Reads the cached config if it was written for the given config file content and schema.
+     * @param hash the hash of the content of the config file
+     * @param fingerprint the fingerprint of the config's schema
+     * @return the cached config or {@code null} if there is no cache or it does not match
+     */
+    @Nullable Map<String, Object> read(long hash, long fingerprint) {
+        if (writer.isPending()) return null;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) return null;
+            if (in.readLong() != hash || in.readLong() != fingerprint) return null;
+
+            return readMap(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable config cache {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Schedules writing the config to the cache.
+     * @param config the validated config
+     * @param hash the hash of the content of the config file the config was read from or written to
+     * @param fingerprint the fingerprint of the config's schema
+     */
+    void write(@NotNull Map<String, Object> config, long hash, long fingerprint) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(hash);
+            out.writeLong(fingerprint);
+            writeMap(out, config);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to cache config in {}", path, e);
+            return;
+        }
+
+        writer.write(bytes.toByteArray());
+    }
+
+    /**
+     * Blocks until all pending writes of the cache are finished.
+     */
+    void flush() {
+        writer.flush();
+    }
+
+    /**
+     * Calculates the fingerprint of a config's schema from its default config and the constraints of its settings.
+     * The default config contains the names, nesting, types and default values of all settings and the constraints contain
+     * for example the bounds of their argument types and the constants of their enums, so the fingerprint changes whenever
+     * a component is added, removed, renamed, retyped, gets a new default value or accepts other values.
+     * Custom validators passed to the settings as an {@code IntPredicate}, {@code DoublePredicate} or similar are not covered,
+     * since their behavior can not be fingerprinted. After changing only such a validator, the cached values are not validated again
+     * until the config file changes, so the sidecar has to be deleted or the config file touched.
+     * @param defaultConfig the config containing only default values
+     * @param schema the constraints of the settings that are not part of the default config
+     * @return the fingerprint of the schema
+     */
+    static long fingerprint(@NotNull Map<String, Object> defaultConfig, @NotNull Map<String, Object> schema) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeMap(out, defaultConfig);
+            writeMap(out, schema);
+        } catch (IOException e) {
+            return 0;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        return crc.getValue();
+    }
+
+    private static void writeMap(@NotNull DataOutputStream out, @NotNull Map<?, ?> map) throws IOException {
+        out.writeInt(map.size());
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey().toString());
+            writeValue(out, entry.getKey().toString(), entry.getValue());
+        }
+    }
+
+    private static void writeValue(@NotNull DataOutputStream out, @NotNull String name, Object value) throws IOException {
+        switch (value) {
+            case Map<?, ?> map -> { out.writeByte(MAP); writeMap(out, map); }
+            case List<?> list -> {
+                out.writeByte(LIST);
+                out.writeInt(list.size());
+                for (Object element : list) writeValue(out, name, element);
+            }
+            case Integer number -> { out.writeByte(INT); out.writeInt(number); }
+            case Long number -> { out.writeByte(LONG); out.writeLong(number); }
+            case Float number -> { out.writeByte(FLOAT); out.writeFloat(number); }
+            case Double number -> { out.writeByte(DOUBLE); out.writeDouble(number); }
+            case Boolean bool -> { out.writeByte(BOOLEAN); out.writeBoolean(bool); }
+            case String string -> { out.writeByte(STRING); out.writeUTF(string); }
+            case null, default -> throw new IOException("Can not cache value of entry " + name);
+        }
+    }
+
+    private static @NotNull Map<String, Object> readMap(@NotNull DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Object> map = new LinkedHashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            String name = in.readUTF();
+            map.put(name, readValue(in, name));
+        }
+
+        return map;
+    }
+
+    private static Object readValue(@NotNull DataInputStream in, @NotNull String name) throws IOException {
+        return switch (in.readByte()) {
+            case MAP -> readMap(in);
+            case LIST -> {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>();
+                for (int i = 0; i < size; i++) list.add(readValue(in, name));
+                yield list;
+            }
+            case INT -> in.readInt();
+            case LONG -> in.readLong();
+            case FLOAT -> in.readFloat();
+            case DOUBLE -> in.readDouble();
+            case BOOLEAN -> in.readBoolean();
+            case STRING -> in.readUTF();
+            default -> throw new IOException("Unknown value type of entry " + name);
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.etfl.rules4worlds.fileManagement;
 import com.etfl.rules4worlds.ConfigManager;
 
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -16,4 +17,28 @@ public interface ConfigFactory {
      * @return a new {@link ConfigFileManager} object
      */
     ConfigFileManager create(Function<Map<String, Object>, Boolean> configValidator);
+
+    /**
+     * Creates a new {@link ConfigFileManager} instance with the provided configValidator and configReader.
+     * Implementations that can not read the config in a single pass ignore the configReader.
+     * @param configValidator the function that validates the config
+     * @param configReader reads and validates a json config in a single pass
+     * @return a new {@link ConfigFileManager} object
+     */
+    default ConfigFileManager create(Function<Map<String, Object>, Boolean> configValidator, JsonConfigReader configReader) {
+        return create(configValidator);
+    }
+
+    /**
+     * Creates a new {@link ConfigFileManager} instance with the provided configValidator, configReader and configSchema.
+     * Implementations that do not cache the validated config ignore the configSchema.
+     * @param configValidator the function that validates the config
+     * @param configReader reads and validates a json config in a single pass
+     * @param configSchema puts the constraints of the settings that are not part of the default config into a map
+     * @return a new {@link ConfigFileManager} object
+     */
+    default ConfigFileManager create(Function<Map<String, Object>, Boolean> configValidator, JsonConfigReader configReader,
+                                     Consumer<Map<String, Object>> configSchema) {
+        return create(configValidator, configReader);
+    }
 }
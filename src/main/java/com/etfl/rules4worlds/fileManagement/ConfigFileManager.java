@@ -1,6 +1,7 @@
 package com.etfl.rules4worlds.fileManagement;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * The ConfigFileManager is an interface for the config file manager.
@@ -12,4 +13,23 @@ public interface ConfigFileManager {
      * @return the config file as a map
      */
     Map<String, Object> getConfig();
+
+    /**
+     * Blocks until all pending writes of the config file are finished.
+     * Called when the server stops. Implementations that write synchronously do not need to override this.
+     */
+    default void flush() {}
+
+    /**
+     * Starts watching the config file for changes made while the game is running.
+     * The consumer is called with the new config off the server thread whenever the file changed.
+     * Implementations that do not support watching do not need to override this.
+     * @param onChange the consumer that receives the new config
+     */
+    default void startWatching(Consumer<Map<String, Object>> onChange) {}
+
+    /**
+     * Stops watching the config file. Does nothing if the file is not watched.
+     */
+    default void stopWatching() {}
 }
@@ -0,0 +1,119 @@
+package com.etfl.rules4worlds.fileManagement;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Watches a config file for changes on a background thread.
+ * Events are debounced, so that saving a file in an editor, which often causes multiple events, results in a single notification.
+ */
+class ConfigFileWatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Rules4Worlds");
+
+    /**
+     * The time in milliseconds without further events after which a change is reported.
+     */
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final Path path;
+
+    /**
+     * Called on the watcher thread once the file stopped changing.
+     */
+    private final Runnable onChange;
+
+    private WatchService watchService = null;
+
+    /**
+     * Creates a new {@code ConfigFileWatcher} for the file at the given path. Does not start watching.
+     * @param path the path of the config file
+     * @param onChange called on the watcher thread once the file stopped changing
+     */
+    ConfigFileWatcher(@NotNull Path path, @NotNull Runnable onChange) {
+        this.path = path;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Starts watching the directory of the file. Does nothing if the watcher is already running.
+     * @throws IOException if the directory can not be watched
+     */
+    synchronized void start() throws IOException {
+        if (watchService != null) return;
+
+        WatchService service = path.getFileSystem().newWatchService();
+        path.getParent().register(service, ENTRY_CREATE, ENTRY_MODIFY);
+        watchService = service;
+
+        Thread.ofVirtual().name("Rules4Worlds config watcher").start(() -> watch(service));
+    }
+
+    /**
+     * Stops watching. Does nothing if the watcher is not running.
+     */
+    synchronized void stop() {
+        if (watchService == null) return;
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to stop watching config file {}", path, e);
+        }
+
+        watchService = null;
+    }
+
+    /**
+     * Waits for events concerning the file and reports a change after the debounce time passed without further events.
+     * Runs until the watch service is closed.
+     * @param service the watch service to take the events from
+     */
+    private void watch(@NotNull WatchService service) {
+        try {
+            while (true) {
+                if (!concernsFile(service.take())) continue;
+
+                WatchKey key;
+                while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    concernsFile(key);
+                }
+
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Failed to reload config file {}", path, e);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ignored) {
+        }
+    }
+
+    /**
+     * Checks if any event of the key concerns the watched file and resets the key.
+     * @param key the key to check
+     * @return {@code true} if the file was created or modified, {@code false} otherwise
+     */
+    private boolean concernsFile(@NotNull WatchKey key) {
+        boolean concernsFile = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            concernsFile |= path.getFileName().equals(event.context());
+        }
+
+        key.reset();
+
+        return concernsFile;
+    }
+}
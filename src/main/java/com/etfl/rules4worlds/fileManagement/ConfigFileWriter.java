@@ -0,0 +1,159 @@
+package com.etfl.rules4worlds.fileManagement;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes the content of a config file on a background thread.
+ * Write requests that arrive while a write is in progress are coalesced, so only the newest content is written.
+ * The content is written to a temporary file first, which is then moved in place of the config file.
+ */
+class ConfigFileWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Rules4Worlds");
+
+    /**
+     * The writers that were not garbage collected yet. A writer with pending content is kept alive by its writer thread.
+     */
+    private static final Set<ConfigFileWriter> WRITERS = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConfigFileWriter::flushAll, "Rules4Worlds config flush"));
+    }
+
+    private final Path path;
+    private final Path tempPath;
+
+    /**
+     * Called on the writer thread with the written content and the attributes of the file after each successful write.
+     */
+    private final BiConsumer<byte[], BasicFileAttributes> onWritten;
+
+    /**
+     * The newest content that has not been written yet, {@code null} if there is none.
+     */
+    private byte[] pending = null;
+
+    /**
+     * Whether the writer thread is running.
+     */
+    private boolean writing = false;
+
+    /**
+     * Creates a new {@code ConfigFileWriter} for the file at the given path.
+     * Pending writes are waited for when the JVM shuts down.
+     * @param path the path of the config file
+     * @param onWritten called with the written content and the attributes of the file after each successful write
+     */
+    ConfigFileWriter(@NotNull Path path, @NotNull BiConsumer<byte[], BasicFileAttributes> onWritten) {
+        this.path = path;
+        this.tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        this.onWritten = onWritten;
+
+        WRITERS.add(this);
+    }
+
+    /**
+     * Schedules the content to be written to the file. Does not block.
+     * Replaces any content that is scheduled but has not been written yet.
+     * @param content the content to write
+     */
+    synchronized void write(byte @NotNull [] content) {
+        pending = content;
+
+        if (writing) return;
+
+        writing = true;
+        Thread.ofVirtual().name("Rules4Worlds config writer").start(this::drain);
+    }
+
+    /**
+     * Checks if there is content that has not been written yet.
+     * @return {@code true} if a write is scheduled or in progress, {@code false} otherwise
+     */
+    synchronized boolean isPending() {
+        return writing;
+    }
+
+    /**
+     * Blocks until all scheduled content has been written.
+     */
+    synchronized void flush() {
+        boolean interrupted = false;
+
+        while (writing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Blocks until the scheduled content of all writers has been written. Called by the shutdown hook shared by all writers.
+     */
+    private static void flushAll() {
+        List<ConfigFileWriter> writers;
+
+        synchronized (WRITERS) {
+            writers = new ArrayList<>(WRITERS);
+        }
+
+        writers.forEach(ConfigFileWriter::flush);
+    }
+
+    /**
+     * Writes the pending content until there is none left.
+     */
+    private void drain() {
+        while (true) {
+            byte[] content;
+
+            synchronized (this) {
+                content = pending;
+                pending = null;
+
+                if (content == null) {
+                    writing = false;
+                    notifyAll();
+                    return;
+                }
+            }
+
+            try {
+                onWritten.accept(content, writeAtomically(content));
+            } catch (IOException e) {
+                LOGGER.error("Failed to write config file {}", path, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the content to the temporary file and moves it in place of the config file.
+     * @param content the content to write
+     * @return the attributes of the config file after the write
+     */
+    private @NotNull BasicFileAttributes writeAtomically(byte @NotNull [] content) throws IOException {
+        Files.write(tempPath, content);
+
+        try {
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return Files.readAttributes(path, BasicFileAttributes.class);
+    }
+}
@@ -4,6 +4,7 @@ import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBl
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -15,6 +16,11 @@ public class JsonConfigFactory implements ConfigFactory {
      */
     private final String configFileName;
 
+    /**
+     * Whether the created file managers store a binary sidecar of the validated config.
+     */
+    private boolean binaryCache = false;
+
     /**
      * Creates a new {@code JsonConfigFactory} with the specified {@code configFileName} without the file extension.
      * @param configFileName the name of the config file
@@ -23,6 +29,19 @@ public class JsonConfigFactory implements ConfigFactory {
         this.configFileName = configFileName;
     }
 
+    /**
+     * Makes the created file managers store a binary sidecar of the validated config next to the config file.
+     * On startup the config is then read from the sidecar, which skips parsing and validating the json file,
+     * as long as neither the json file nor the components of the config changed.
+     * @return the JsonConfigFactory for chaining
+     * @see JsonConfigFileManager#enableBinaryCache()
+     */
+    public JsonConfigFactory enableBinaryCache() {
+        binaryCache = true;
+
+        return this;
+    }
+
     /**
      * Creates a new {@link JsonConfigFileManager} object with the provided {@code configValidator} and the {@code configFileName} provided in the constructor.
      * @param configValidator the function that validates the config
@@ -30,6 +49,38 @@ public class JsonConfigFactory implements ConfigFactory {
      */
     @Override
     public ConfigFileManager create(@NotNull Function<Map<String, Object>, Boolean> configValidator) {
-        return new JsonConfigFileManager(configFileName, configValidator);
+        return configure(new JsonConfigFileManager(configFileName, configValidator));
+    }
+
+    /**
+     * Creates a new {@link JsonConfigFileManager} object with the provided {@code configValidator} and {@code configReader}
+     * and the {@code configFileName} provided in the constructor.
+     * @param configValidator the function that validates the config
+     * @param configReader reads and validates the config in a single pass
+     * @return a new {@link JsonConfigFileManager} object
+     */
+    @Override
+    public ConfigFileManager create(@NotNull Function<Map<String, Object>, Boolean> configValidator, @NotNull JsonConfigReader configReader) {
+        return configure(new JsonConfigFileManager(configFileName, configValidator, configReader));
+    }
+
+    /**
+     * Creates a new {@link JsonConfigFileManager} object with the provided {@code configValidator}, {@code configReader} and {@code configSchema}
+     * and the {@code configFileName} provided in the constructor.
+     * @param configValidator the function that validates the config
+     * @param configReader reads and validates the config in a single pass
+     * @param configSchema puts the constraints of the settings that are not part of the default config into a map
+     * @return a new {@link JsonConfigFileManager} object
+     */
+    @Override
+    public ConfigFileManager create(@NotNull Function<Map<String, Object>, Boolean> configValidator, @NotNull JsonConfigReader configReader,
+                                    @NotNull Consumer<Map<String, Object>> configSchema) {
+        JsonConfigFileManager fileManager = new JsonConfigFileManager(configFileName, configValidator, configReader);
+
+        return binaryCache ? fileManager.enableBinaryCache(configSchema) : fileManager;
+    }
+
+    private @NotNull JsonConfigFileManager configure(@NotNull JsonConfigFileManager fileManager) {
+        return binaryCache ? fileManager.enableBinaryCache() : fileManager;
     }
 }
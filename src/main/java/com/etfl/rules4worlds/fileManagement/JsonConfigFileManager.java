@@ -2,37 +2,159 @@ package com.etfl.rules4worlds.fileManagement;
 
 import net.fabricmc.loader.api.FabricLoader;
 
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.zip.CRC32C;
 
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * A {@link ConfigFileManager} that stores the config as a json file in the config directory.
+ * The validated config is cached in memory and the file is only read again if its modification time, size or content changed.
+ */
 public class JsonConfigFileManager implements ConfigFileManager {
-    private final String configFileName;
+    private final Path configPath;
     private final Function<Map<String, Object>, Boolean> configValidator;
 
+    /**
+     * Reads and validates the config in a single pass, {@code null} if the config is always parsed and validated in two steps.
+     */
+    private final JsonConfigReader configReader;
+
+    /**
+     * Writes the config file in the background, so that getting the config never blocks on writing the file.
+     */
+    private final ConfigFileWriter writer;
+
+    /**
+     * The binary sidecar of the validated config, {@code null} if the binary cache is disabled.
+     */
+    private ConfigCache cache = null;
+
+    /**
+     * Puts the constraints of the settings that are not part of the default config into a map, included in the fingerprint of the config's schema.
+     */
+    private Consumer<Map<String, Object>> configSchema = schema -> {};
+
+    /**
+     * The fingerprint of the config's schema, calculated from the default config and the constraints of the settings when the cache is first used.
+     */
+    private Long schemaFingerprint = null;
+
+    /**
+     * Watches the config file for changes, {@code null} if the file is not watched.
+     */
+    private ConfigFileWatcher watcher = null;
+
+    /**
+     * The validated config of the last read, {@code null} if the file has not been read yet.
+     */
+    private Map<String, Object> cachedConfig = null;
+
+    /**
+     * The state of the file the cached config was read from or written to.
+     */
+    private FileState cachedFileState = null;
+
+    /**
+     * The number of times the content of the config file has been read from the disk.
+     */
+    private long diskReads = 0;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("Rules4Worlds");
     private static final Gson GSON = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
             .setPrettyPrinting().create();
     private static final TypeToken<Map<String, Object>> TYPE_TOKEN = new TypeToken<>() {};
 
+    /**
+     * Creates a new {@code JsonConfigFileManager} for the file with the given name in the config directory.
+     * @param configFileName the name of the config file without the file extension
+     * @param configValidator the function that validates the config
+     */
     public JsonConfigFileManager(@NotNull @NotBlank String configFileName, @Nullable Function<Map<String, Object>, Boolean> configValidator) {
-        this.configFileName = configFileName;
+        this(configFileName, configValidator, null);
+    }
+
+    /**
+     * Creates a new {@code JsonConfigFileManager} for the file with the given name in the config directory.
+     * @param configFileName the name of the config file without the file extension
+     * @param configValidator the function that validates the config
+     * @param configReader reads and validates the config in a single pass, {@code null} to always parse and validate the config in two steps
+     */
+    public JsonConfigFileManager(@NotNull @NotBlank String configFileName,
+                                 @Nullable Function<Map<String, Object>, Boolean> configValidator,
+                                 @Nullable JsonConfigReader configReader) {
+        this(FabricLoader.getInstance().getConfigDir().resolve(configFileName + ".json"), configValidator, configReader);
+    }
+
+    /**
+     * Creates a new {@code JsonConfigFileManager} for the file at the given path.
+     * @param configPath the path of the config file
+     * @param configValidator the function that validates the config
+     * @param configReader reads and validates the config in a single pass, {@code null} to always parse and validate the config in two steps
+     */
+    public JsonConfigFileManager(@NotNull Path configPath,
+                                 @Nullable Function<Map<String, Object>, Boolean> configValidator,
+                                 @Nullable JsonConfigReader configReader) {
+        this.configPath = configPath;
         this.configValidator = configValidator != null ? configValidator : (map) -> false;
+        this.configReader = configReader;
+        this.writer = new ConfigFileWriter(configPath, this::onWritten);
+    }
+
+    /**
+     * Enables a binary sidecar of the validated config, stored next to the config file.
+     * While neither the config file nor the schema of the config changed, the config is read from the sidecar
+     * without parsing and validating the json file.
+     * @return the JsonConfigFileManager for chaining
+     */
+    public synchronized JsonConfigFileManager enableBinaryCache() {
+        if (cache == null) cache = new ConfigCache(configPath);
+
+        return this;
     }
 
+    /**
+     * Enables a binary sidecar of the validated config, stored next to the config file.
+     * The sidecar is also not used after the constraints of the settings changed that are not part of the default config,
+     * like the bounds of their argument types or the constants of their enums.
+     * Changes to custom validators of the settings are not detected, see {@link ConfigCache#fingerprint(Map, Map)}.
+     * @param configSchema puts the constraints of the settings that are not part of the default config into a map
+     * @return the JsonConfigFileManager for chaining
+     * @see #enableBinaryCache()
+     */
+    public synchronized JsonConfigFileManager enableBinaryCache(@NotNull Consumer<Map<String, Object>> configSchema) {
+        this.configSchema = configSchema;
+
+        return enableBinaryCache();
+    }
+
+    /**
+     * Gets the validated config. Only reads the file if it changed since the last call.
+     * @return the config as an unmodifiable map, which must not be modified
+     */
     @Override
-    public Map<String, Object> getConfig() {
+    public synchronized Map<String, Object> getConfig() {
         try {
             return _getConfig();
         } catch (IOException e) {
@@ -40,27 +162,234 @@ public class JsonConfigFileManager implements ConfigFileManager {
         }
     }
 
+    /**
+     * Gets the number of times the content of the config file has been read from the disk.
+     * @return the number of disk reads
+     */
+    public synchronized long getDiskReads() {
+        return diskReads;
+    }
+
+    /**
+     * Blocks until all pending writes of the config file are finished.
+     */
+    @Override
+    public void flush() {
+        writer.flush();
+
+        ConfigCache cache;
+        synchronized (this) {
+            cache = this.cache;
+        }
+
+        if (cache != null) cache.flush();
+    }
+
+    @Override
+    public synchronized void startWatching(@NotNull Consumer<Map<String, Object>> onChange) {
+        if (watcher != null) return;
+
+        watcher = new ConfigFileWatcher(configPath, () -> reload(onChange));
+
+        try {
+            watcher.start();
+        } catch (IOException e) {
+            LOGGER.error("Failed to watch config file {}", configPath, e);
+            watcher = null;
+        }
+    }
+
+    @Override
+    public synchronized void stopWatching() {
+        if (watcher == null) return;
+
+        watcher.stop();
+        watcher = null;
+    }
+
+    /**
+     * Called by the watcher when the config file changed.
+     * Reads and validates the file and passes the new config to the consumer if its content changed.
+     * Keeps the current config if the file can not be read or parsed, for example while it is still being edited.
+     * @param onChange the consumer that receives the new config
+     */
+    private void reload(@NotNull Consumer<Map<String, Object>> onChange) {
+        Map<String, Object> previous;
+        Map<String, Object> config;
+
+        synchronized (this) {
+            previous = cachedConfig;
+
+            try {
+                config = _getConfig();
+            } catch (IOException | JsonParseException e) {
+                LOGGER.warn("Failed to reload config file {}", configPath, e);
+                return;
+            }
+        }
+
+        if (config != previous) onChange.accept(config);
+    }
+
     private Map<String, Object> _getConfig() throws IOException {
-        Path configPath = FabricLoader.getInstance().getConfigDir().resolve(configFileName + ".json");
-        boolean fileExists = Files.exists(configPath);
+        if (cachedConfig != null && writer.isPending()) return cachedConfig;
+
+        BasicFileAttributes attributes = readAttributes(configPath);
+
+        if (cachedConfig != null && attributes != null && cachedFileState.matches(attributes)) return cachedConfig;
 
         Map<String, Object> config = null;
+        byte[] content = null;
+
+        if (attributes != null) {
+            content = Files.readAllBytes(configPath);
+            diskReads++;
+
+            long hash = hash(content);
+
+            if (cachedConfig != null && cachedFileState.hash() == hash) {
+                cachedFileState = FileState.of(attributes, hash);
+                return cachedConfig;
+            }
+
+            Map<String, Object> binaryConfig = cache != null ? cache.read(hash, schemaFingerprint()) : null;
+
+            if (binaryConfig != null) {
+                cachedFileState = FileState.of(attributes, hash);
+                cachedConfig = Collections.unmodifiableMap(binaryConfig);
+                return cachedConfig;
+            }
 
-        if (fileExists) {
-            try (FileReader reader = new FileReader(configPath.toFile())) {
-                config = GSON.fromJson(reader, TYPE_TOKEN.getType());
+            Map<String, Object> streamedConfig = readValid(content);
+
+            if (streamedConfig != null) {
+                cachedFileState = FileState.of(attributes, hash);
+                cachedConfig = Collections.unmodifiableMap(streamedConfig);
+                if (cache != null) cache.write(cachedConfig, hash, schemaFingerprint());
+                return cachedConfig;
             }
+
+            config = GSON.fromJson(new String(content, StandardCharsets.UTF_8), TYPE_TOKEN.getType());
         }
 
         if (config == null) config = new LinkedHashMap<>();
 
         boolean changed = configValidator.apply(config);
 
-        if (!fileExists || changed) {
-            try (FileWriter writer = new FileWriter(configPath.toFile())) {
-                GSON.toJson(config, writer);
-            }
+        if (attributes == null || changed) {
+            content = GSON.toJson(config).getBytes(StandardCharsets.UTF_8);
+            writer.write(content);
+            cachedFileState = FileState.unwritten(hash(content));
+        } else {
+            cachedFileState = FileState.of(attributes, hash(content));
+        }
+
+        cachedConfig = Collections.unmodifiableMap(config);
+        if (cache != null) cache.write(cachedConfig, cachedFileState.hash(), schemaFingerprint());
+
+        return cachedConfig;
+    }
+
+    /**
+     * Gets the fingerprint of the config's schema, which is calculated from the default config and the constraints of the settings on the first call.
+     * @return the fingerprint of the schema
+     */
+    private long schemaFingerprint() {
+        if (schemaFingerprint == null) {
+            Map<String, Object> defaultConfig = new LinkedHashMap<>();
+            configValidator.apply(defaultConfig);
+
+            Map<String, Object> schema = new LinkedHashMap<>();
+            configSchema.accept(schema);
+
+            schemaFingerprint = ConfigCache.fingerprint(defaultConfig, schema);
+        }
+
+        return schemaFingerprint;
+    }
+
+    /**
+     * Reads the config in a single pass using the config reader, which avoids parsing the file into a generic map before validating it.
+     * @param content the content of the config file
+     * @return the validated config or {@code null} if there is no config reader or the file needs to be repaired
+     */
+    private @Nullable Map<String, Object> readValid(byte @NotNull [] content) {
+        if (configReader == null) return null;
+
+        Map<String, Object> config = new LinkedHashMap<>();
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+            reader.setLenient(true);
+
+            return configReader.read(reader, config) ? config : null;
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Called by the writer after the config file has been written.
+     * Updates the cached file state if the written content is still the one of the cached config.
+     * @param content the written content
+     * @param attributes the attributes of the file after the write
+     */
+    private synchronized void onWritten(byte @NotNull [] content, @NotNull BasicFileAttributes attributes) {
+        long hash = hash(content);
+
+        if (cachedFileState != null && cachedFileState.hash() == hash) cachedFileState = FileState.of(attributes, hash);
+    }
+
+    /**
+     * Reads the attributes of the file at the given path.
+     * @param path the path of the file
+     * @return the attributes of the file or {@code null} if the file does not exist
+     */
+    private static @Nullable BasicFileAttributes readAttributes(@NotNull Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calculates the hash of the content of a file.
+     * @param content the content of the file
+     * @return the hash of the content
+     */
+    private static long hash(byte @NotNull [] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    /**
+     * The state of the config file at the time it was last read or written.
+     * @param lastModified the modification time of the file in milliseconds
+     * @param size the size of the file in bytes
+     * @param hash the hash of the content of the file
+     */
+    private record FileState(long lastModified, long size, long hash) {
+        private static FileState of(@NotNull BasicFileAttributes attributes, long hash) {
+            return new FileState(attributes.lastModifiedTime().toMillis(), attributes.size(), hash);
+        }
+
+        /**
+         * Creates the state of content that has been scheduled for writing but was not written yet.
+         * It does not match any attributes, so the file is compared by its hash until the write is finished.
+         * @param hash the hash of the scheduled content
+         */
+        private static FileState unwritten(long hash) {
+            return new FileState(-1, -1, hash);
+        }
+
+        /**
+         * Checks if the given attributes match the state without reading the content of the file.
+         * @param attributes the current attributes of the file
+         * @return {@code true} if modification time and size are unchanged, {@code false} otherwise
+         */
+        private boolean matches(@NotNull BasicFileAttributes attributes) {
+            return lastModified == attributes.lastModifiedTime().toMillis() && size == attributes.size();
         }
-        return config;
     }
 }
@@ -0,0 +1,23 @@
+package com.etfl.rules4worlds.fileManagement;
+
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reads and validates a json config file in a single pass over its tokens, without parsing it into a generic map first.
+ */
+@FunctionalInterface
+public interface JsonConfigReader {
+    /**
+     * Reads the config from the reader and puts the validated values into the map.
+     * Stops at the first entry that is missing, out of order, unknown or invalid.
+     * @param reader the reader positioned at the start of the file
+     * @param config the map to put the validated values into
+     * @return {@code true} if the whole file was valid, {@code false} if it needs to be repaired
+     * @throws IOException if the file is not valid json
+     */
+    boolean read(@NotNull JsonReader reader, @NotNull Map<String, Object> config) throws IOException;
+}
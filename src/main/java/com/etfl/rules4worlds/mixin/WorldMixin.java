@@ -0,0 +1,25 @@
+package com.etfl.rules4worlds.mixin;
+
+import com.etfl.rules4worlds.DimensionSlot;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Stores the {@link DimensionSlot} of each world.
+ */
+@Mixin(World.class)
+public abstract class WorldMixin implements DimensionSlot {
+    @Unique
+    private int rules4worlds$dimensionSlot = -1;
+
+    @Override
+    public int rules4worlds$getDimensionSlot() {
+        return rules4worlds$dimensionSlot;
+    }
+
+    @Override
+    public void rules4worlds$setDimensionSlot(int slot) {
+        rules4worlds$dimensionSlot = slot;
+    }
+}
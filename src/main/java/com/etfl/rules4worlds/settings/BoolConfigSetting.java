@@ -1,5 +1,8 @@
 package com.etfl.rules4worlds.settings;
 
+import com.etfl.rules4worlds.SettingsTable;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.mojang.brigadier.arguments.ArgumentType;
 import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
@@ -10,7 +13,14 @@ import net.minecraft.text.Text;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static net.minecraft.server.command.CommandManager.argument;
@@ -21,10 +31,47 @@ import static net.minecraft.util.Formatting.WHITE;
  * A boolean configuration setting.
  */
 public class BoolConfigSetting implements ConfigSetting {
+    /**
+     * Used to read and write {@link #value} with acquire/release semantics.
+     */
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(BoolConfigSetting.class, "value", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The value of the setting while it is not bound to a table. Only written on the server thread using {@link #VALUE}.
+     */
     private boolean value;
     private final boolean defaultValue;
     private final String name;
     private final ArgumentType<Boolean> argumentType;
+    private int index = -1;
+
+    /**
+     * The table the value is stored in at the index of the setting, {@code null} if it is stored in {@link #value}.
+     */
+    private SettingsTable table = null;
+
+    /**
+     * The accessor handed out by {@link #accessor()}, {@code null} until it is first requested.
+     */
+    private ConstantAccessor accessor = null;
+
+    /**
+     * Receives every new value, {@code null} if the value is not mirrored.
+     */
+    private Consumer<Boolean> mirror = null;
+
+    /**
+     * The listeners of the setting, an empty immutable list until the first listener is added.
+     */
+    private List<SettingChangeListener<Boolean>> listeners = List.of();
     private Runnable markDirty = () -> {};
     private Supplier<Map<String, Object>> defaultSupplier = Map::of;
 
@@ -66,12 +113,12 @@ public class BoolConfigSetting implements ConfigSetting {
 
     @Override
     public void toNbt(@NotNull NbtCompound nbt) {
-        nbt.putBoolean(name, value);
+        nbt.putBoolean(name, get());
     }
 
     @Override
     public void fromNbt(@NotNull NbtCompound nbt) {
-        value = nbt.getBoolean(name);
+        store(nbt.getBoolean(name));
     }
 
     @Override
@@ -82,10 +129,18 @@ public class BoolConfigSetting implements ConfigSetting {
         return incorrect;
     }
 
+    @Override
+    public boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        if (reader.peek() != JsonToken.BOOLEAN) return false;
+
+        map.put(name, reader.nextBoolean());
+        return true;
+    }
+
     @Override
     public void fromMap(@NotNull Map<String, Object> map) {
         Object obj = map.getOrDefault(name, defaultValue);
-        value = (obj instanceof Boolean) ? (Boolean) obj : defaultValue;
+        setValue((obj instanceof Boolean) ? (Boolean) obj : defaultValue);
     }
 
     /**
@@ -93,7 +148,69 @@ public class BoolConfigSetting implements ConfigSetting {
      * @return the value of the setting
      */
     public boolean get() {
-        return value;
+        SettingsTable table = this.table;
+
+        return table != null ? table.getFlag(index) : (boolean) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Gets a method handle of type {@code ()boolean} that returns the value of the setting as a constant.
+     * When invoked with {@code invokeExact} from a {@code static final} field, the JIT folds the value like a {@code static final} field.
+     * Changing the value invalidates the compiled code, which makes changes expensive, so it should only be used for settings that rarely change.
+     * <b>Should only be called during initialization of the mod or on the server thread.</b>
+     * @return the method handle
+     */
+    public @NotNull MethodHandle accessor() {
+        if (accessor == null) accessor = new ConstantAccessor(boolean.class, get());
+
+        return accessor.invoker();
+    }
+
+    /**
+     * Mirrors the value of the setting, for example into a static field, so that reading it does not go through the setting.
+     * The consumer is called with the current value right away and with every new value afterward, on the thread that changed it,
+     * which is the server thread unless the setting is changed during initialization.
+     * Unlike listeners, it is also called when the value is loaded on server start.
+     * <b>Should only be called during initialization of the mod.</b>
+     * @param mirror the consumer that receives the values
+     * @return the setting for chaining
+     */
+    public BoolConfigSetting mirrorTo(@NotNull Consumer<Boolean> mirror) {
+        this.mirror = mirror;
+        mirror.accept(get());
+        return this;
+    }
+
+    @Override
+    public @NotNull Object getValue() {
+        return get();
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Adds a listener that is notified at the end of every tick in which the value of the setting changed.
+     * @param listener the listener to add
+     * @return the setting for chaining
+     */
+    public BoolConfigSetting addListener(@NotNull SettingChangeListener<Boolean> listener) {
+        if (listeners.isEmpty()) listeners = new ArrayList<>();
+
+        listeners.add(listener);
+        return this;
+    }
+
+    @Override
+    public void notifyListeners(@NotNull Object oldValue, @NotNull Object newValue) {
+        listeners.forEach(listener -> listener.onChange((Boolean) oldValue, (Boolean) newValue));
     }
 
     @Override
@@ -106,12 +223,60 @@ public class BoolConfigSetting implements ConfigSetting {
         defaultSupplier = supplier;
     }
 
+    /**
+     * Sets the value of the setting and marks it dirty if the value changed.
+     * @param value the new value
+     */
+    private void setValue(boolean value) {
+        if (get() == value) return;
+
+        store(value);
+        markDirty.run();
+    }
+
+    /**
+     * Stores the value in the table if the setting is bound to one or in the field otherwise, with release semantics.
+     * Updates the accessor and the mirror if the value changed.
+     * @param value the value to store
+     */
+    private void store(boolean value) {
+        boolean changed = get() != value;
+
+        if (table != null) table.setFlag(index, value);
+        else VALUE.setRelease(this, value);
+
+        if (!changed) return;
+        if (accessor != null) accessor.update(value);
+        if (mirror != null) mirror.accept(value);
+    }
+
+    /**
+     * Loads the value as stored by {@link CompactNbt}, without marking the setting dirty.
+     * @param value the value
+     */
+    void load(boolean value) {
+        store(value);
+    }
+
+    /**
+     * Moves the value of the setting into the table, which then stores it instead of the field. Should only be called by the {@link SettingsTable}.
+     * @param table the table to store the value in
+     */
+    public void bind(@NotNull SettingsTable table) {
+        boolean value = get();
+
+        table.setFlag(index, value);
+        this.table = table;
+    }
+
     /**
      * Called when the command to get the value of the setting is executed.
      * @param context the command context
      * @return a success value (15 is value is true and 0 if false)
      */
     private int get(CommandContext<ServerCommandSource> context) {
+        final boolean value = get();
+
         context.getSource().sendFeedback(
                 () -> Text.literal("Setting: " + name + " is currently set to: " + value).formatted(WHITE),
                 false);
@@ -126,11 +291,9 @@ public class BoolConfigSetting implements ConfigSetting {
      * @return a success value (15 is value is true and 0 if false)
      */
     private int set(CommandContext<ServerCommandSource> context) {
-        markDirty.run();
-
         final boolean value = BoolArgumentType.getBool(context, name);
 
-        this.value = value;
+        setValue(value);
 
         context.getSource().sendFeedback(
                 () -> Text.literal("Setting: " + name + " is currently set to: " + value).formatted(WHITE),
@@ -146,12 +309,10 @@ public class BoolConfigSetting implements ConfigSetting {
      * @return a success value (15 is value is true and 0 if false)
      */
     private int reset(CommandContext<ServerCommandSource> context) {
-        markDirty.run();
-
         fromMap(defaultSupplier.get());
 
         context.getSource().sendFeedback(
-                () -> Text.literal("Setting: " + name + " is currently set to: " + value).formatted(WHITE),
+                () -> Text.literal("Setting: " + name + " is currently set to: " + get()).formatted(WHITE),
                 true);
 
         return 15;
@@ -0,0 +1,309 @@
+package com.etfl.rules4worlds.settings;
+
+import com.etfl.rules4worlds.ConfigSnapshot;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compact NBT format for the values of all settings of a {@link com.etfl.rules4worlds.ConfigManager ConfigManager}.
+ * Instead of one named tag per setting, the values are packed by type:
+ * numbers as raw bits into one long array, booleans into a bitset and enums as ordinals into an int array.
+ * Settings of other types are stored by their path.
+ * If the settings are bound to a {@link com.etfl.rules4worlds.SettingsTable SettingsTable}, the numbers and booleans are instead written
+ * as copies of its arrays, indexed by the index of the setting, see {@link #writeIndexed}.
+ * <p>
+ * The data is keyed by a fingerprint of the schema, that is the paths and types of all settings in their order.
+ * While the schema is unchanged, the values are read by their position only.
+ * Otherwise the values of the settings that still exist with the same type are found by a hash of their path and type,
+ * which is stored for every setting instead of the paths themselves to keep the saved data small.
+ */
+public final class CompactNbt {
+    private static final String SCHEMA_KEY = "#schema";
+    private static final String SETTINGS_KEY = "settings";
+    private static final String INDEXED_KEY = "indexed";
+    private static final String NUMBERS_KEY = "numbers";
+    private static final String FLAGS_KEY = "flags";
+    private static final String ORDINALS_KEY = "ordinals";
+    private static final String OTHERS_KEY = "others";
+
+    private static final int OTHER = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int FLOAT = 3;
+    private static final int DOUBLE = 4;
+    private static final int BOOLEAN = 5;
+    private static final int ENUM = 6;
+
+    private final ConfigSetting[] settings;
+    private final String[] paths;
+
+    /**
+     * A hash of the path and type of each setting by its index. The lowest three bits contain the kind of the type,
+     * so that the positions of stored values can be determined from the hashes alone.
+     * For enums, the type contains a hash of the constant names, so that ordinals are not read for an enum whose constants changed.
+     */
+    private final long[] settingHashes;
+
+    private final long fingerprint;
+    private final int numberCount;
+    private final int flagCount;
+    private final int ordinalCount;
+
+    /**
+     * Creates the compact format for the given settings.
+     * @param settings the settings by their index
+     * @param paths the full paths of the settings by their index
+     */
+    public CompactNbt(@NotNull ConfigSetting[] settings, @NotNull String[] paths) {
+        this.settings = settings;
+        this.paths = paths;
+        this.settingHashes = new long[settings.length];
+
+        int numberCount = 0;
+        int flagCount = 0;
+        int ordinalCount = 0;
+        long fingerprint = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < settings.length; i++) {
+            int type = type(settings[i]);
+
+            switch (kind(type)) {
+                case INT, LONG, FLOAT, DOUBLE -> numberCount++;
+                case BOOLEAN -> flagCount++;
+                case ENUM -> ordinalCount++;
+                default -> {}
+            }
+
+            fingerprint = hash(hash(fingerprint, paths[i]), type);
+            settingHashes[i] = hash(hash(0xcbf29ce484222325L, paths[i]), type) & ~7L | kind(type);
+        }
+
+        this.fingerprint = fingerprint;
+        this.numberCount = numberCount;
+        this.flagCount = flagCount;
+        this.ordinalCount = ordinalCount;
+    }
+
+    /**
+     * Checks if the NBT data was written in the compact format.
+     * @param nbt the NBT data
+     * @return {@code true} if the data is in the compact format, {@code false} if it is stored by name
+     */
+    public static boolean isCompact(@NotNull NbtCompound nbt) {
+        return nbt.contains(SCHEMA_KEY);
+    }
+
+    /**
+     * Checks if all values can be written from a snapshot, which is the case if there are no settings of other types.
+     * @return {@code true} if all values are packed, {@code false} otherwise
+     */
+    public boolean canWriteSnapshots() {
+        return numberCount + flagCount + ordinalCount == settings.length;
+    }
+
+    /**
+     * Writes the values of the snapshot into the NBT data.
+     * Settings of other types are written from their current value, otherwise the values of the settings are not accessed,
+     * so it may be called off the server thread if {@link #canWriteSnapshots()} is {@code true}.
+     * @param snapshot the snapshot of the settings' values
+     * @param nbt the NBT data to write to
+     */
+    public void write(@NotNull ConfigSnapshot snapshot, @NotNull NbtCompound nbt) {
+        long[] numbers = new long[numberCount];
+        long[] flags = new long[(flagCount + 63) >>> 6];
+        int[] ordinals = new int[ordinalCount];
+        NbtCompound others = new NbtCompound();
+        int number = 0;
+        int flag = 0;
+        int ordinal = 0;
+
+        for (int i = 0; i < settings.length; i++) {
+            switch (settings[i]) {
+                case IntConfigSetting intSetting -> numbers[number++] = snapshot.get(intSetting);
+                case LongConfigSetting longSetting -> numbers[number++] = snapshot.get(longSetting);
+                case FloatConfigSetting floatSetting -> numbers[number++] = Float.floatToRawIntBits(snapshot.get(floatSetting));
+                case DoubleConfigSetting doubleSetting -> numbers[number++] = Double.doubleToRawLongBits(snapshot.get(doubleSetting));
+                case BoolConfigSetting boolSetting -> {
+                    if (snapshot.get(boolSetting)) flags[flag >>> 6] |= 1L << flag;
+                    flag++;
+                }
+                case EnumConfigSetting<?> enumSetting -> ordinals[ordinal++] = snapshot.get(enumSetting).ordinal();
+                default -> {
+                    NbtCompound other = new NbtCompound();
+                    settings[i].toNbt(other);
+                    others.put(paths[i], other);
+                }
+            }
+        }
+
+        nbt.putLong(SCHEMA_KEY, fingerprint);
+        nbt.putLongArray(SETTINGS_KEY, settingHashes.clone());
+        nbt.putLongArray(NUMBERS_KEY, numbers);
+        nbt.putLongArray(FLAGS_KEY, flags);
+        nbt.putIntArray(ORDINALS_KEY, ordinals);
+        nbt.put(OTHERS_KEY, others);
+    }
+
+    /**
+     * Writes the values of the snapshot into the NBT data, with the numbers and booleans taken as a whole from copies of the arrays
+     * of a {@link com.etfl.rules4worlds.SettingsTable SettingsTable}, indexed by the index of the setting.
+     * Only enums and settings of other types are written one by one, the latter from their current value,
+     * so it may be called off the server thread if {@link #canWriteSnapshots()} is {@code true}.
+     * @param snapshot the snapshot of the settings' values
+     * @param numbers the raw bits of the numeric settings by their index, not modified afterward
+     * @param flags the values of the boolean settings as a bitset by their index, not modified afterward
+     * @param nbt the NBT data to write to
+     */
+    public void writeIndexed(@NotNull ConfigSnapshot snapshot, long @NotNull [] numbers, long @NotNull [] flags, @NotNull NbtCompound nbt) {
+        int[] ordinals = new int[ordinalCount];
+        NbtCompound others = new NbtCompound();
+        int ordinal = 0;
+
+        for (int i = 0; i < settings.length; i++) {
+            switch (settings[i]) {
+                case IntConfigSetting ignored -> {}
+                case LongConfigSetting ignored -> {}
+                case FloatConfigSetting ignored -> {}
+                case DoubleConfigSetting ignored -> {}
+                case BoolConfigSetting ignored -> {}
+                case EnumConfigSetting<?> enumSetting -> ordinals[ordinal++] = snapshot.get(enumSetting).ordinal();
+                default -> {
+                    NbtCompound other = new NbtCompound();
+                    settings[i].toNbt(other);
+                    others.put(paths[i], other);
+                }
+            }
+        }
+
+        nbt.putLong(SCHEMA_KEY, fingerprint);
+        nbt.putBoolean(INDEXED_KEY, true);
+        nbt.putLongArray(SETTINGS_KEY, settingHashes.clone());
+        nbt.putLongArray(NUMBERS_KEY, numbers);
+        nbt.putLongArray(FLAGS_KEY, flags);
+        nbt.putIntArray(ORDINALS_KEY, ordinals);
+        nbt.put(OTHERS_KEY, others);
+    }
+
+    /**
+     * Reads the values from NBT data in the compact format into the settings, without marking them dirty.
+     * Should only be called on the server thread.
+     * If the schema changed, settings that no longer exist are ignored and new settings keep their current value.
+     * @param nbt the NBT data to read from
+     */
+    public void read(@NotNull NbtCompound nbt) {
+        long[] numbers = nbt.getLongArray(NUMBERS_KEY);
+        long[] flags = nbt.getLongArray(FLAGS_KEY);
+        int[] ordinals = nbt.getIntArray(ORDINALS_KEY);
+        NbtCompound others = nbt.getCompound(OTHERS_KEY);
+
+        boolean indexed = nbt.getBoolean(INDEXED_KEY);
+        int[] positions = nbt.getLong(SCHEMA_KEY) == fingerprint ? positions(settingHashes, indexed) : matchPositions(nbt, indexed);
+
+        for (int i = 0; i < settings.length; i++) {
+            int position = positions[i];
+            if (position < 0) continue;
+
+            switch (settings[i]) {
+                case IntConfigSetting setting -> { if (position < numbers.length) setting.loadBits(numbers[position]); }
+                case LongConfigSetting setting -> { if (position < numbers.length) setting.loadBits(numbers[position]); }
+                case FloatConfigSetting setting -> { if (position < numbers.length) setting.loadBits(numbers[position]); }
+                case DoubleConfigSetting setting -> { if (position < numbers.length) setting.loadBits(numbers[position]); }
+                case BoolConfigSetting setting -> {
+                    if (position >>> 6 < flags.length) setting.load((flags[position >>> 6] & (1L << position)) != 0);
+                }
+                case EnumConfigSetting<?> setting -> { if (position < ordinals.length) setting.loadOrdinal(ordinals[position]); }
+                default -> {
+                    if (others.contains(paths[i], NbtElement.COMPOUND_TYPE)) settings[i].fromNbt(others.getCompound(paths[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines the position of each setting's value within the array of its type, {@code 0} for settings of other types.
+     * @param settingHashes the hashes of the settings by their index, whose lowest bits contain the kind of their type
+     * @param indexed whether the numbers and booleans are stored by the index of the setting
+     * @return the positions of the values by the index of the setting
+     */
+    private static int @NotNull [] positions(long @NotNull [] settingHashes, boolean indexed) {
+        int[] positions = new int[settingHashes.length];
+        int number = 0;
+        int flag = 0;
+        int ordinal = 0;
+
+        for (int i = 0; i < settingHashes.length; i++) {
+            positions[i] = switch (kind((int) settingHashes[i])) {
+                case INT, LONG, FLOAT, DOUBLE -> indexed ? i : number++;
+                case BOOLEAN -> indexed ? i : flag++;
+                case ENUM -> ordinal++;
+                default -> 0;
+            };
+        }
+
+        return positions;
+    }
+
+    /**
+     * Matches the settings to the values stored with a different schema by the hash of their path and type.
+     * @param nbt the NBT data containing the hashes of the stored settings
+     * @param indexed whether the numbers and booleans are stored by the index of the setting
+     * @return the positions of the values by the index of the setting, {@code -1} for settings without a stored value
+     */
+    private int @NotNull [] matchPositions(@NotNull NbtCompound nbt, boolean indexed) {
+        long[] storedHashes = nbt.getLongArray(SETTINGS_KEY);
+        int[] storedPositions = positions(storedHashes, indexed);
+
+        Map<Long, Integer> storedIndices = new HashMap<>(storedHashes.length * 2);
+        for (int i = 0; i < storedHashes.length; i++) storedIndices.put(storedHashes[i], i);
+
+        int[] positions = new int[settings.length];
+
+        for (int i = 0; i < settings.length; i++) {
+            Integer stored = storedIndices.get(settingHashes[i]);
+            positions[i] = stored != null ? storedPositions[stored] : -1;
+        }
+
+        return positions;
+    }
+
+    private static int type(@NotNull ConfigSetting setting) {
+        return switch (setting) {
+            case IntConfigSetting ignored -> INT;
+            case LongConfigSetting ignored -> LONG;
+            case FloatConfigSetting ignored -> FLOAT;
+            case DoubleConfigSetting ignored -> DOUBLE;
+            case BoolConfigSetting ignored -> BOOLEAN;
+            case EnumConfigSetting<?> enumSetting -> ENUM | String.join(",", enumSetting.getConstantNames()).hashCode() << 3;
+            default -> OTHER;
+        };
+    }
+
+    private static int kind(int type) {
+        return type & 7;
+    }
+
+    /**
+     * Mixes the characters of a string into a 64-bit FNV-1a hash.
+     */
+    private static long hash(long hash, @NotNull String value) {
+        for (int i = 0; i < value.length(); i++) hash = hash(hash, value.charAt(i));
+
+        return hash;
+    }
+
+    /**
+     * Mixes a value into a 64-bit FNV-1a hash.
+     */
+    private static long hash(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+}
@@ -2,11 +2,20 @@ package com.etfl.rules4worlds.settings;
 
 import com.etfl.rules4worlds.ConfigComponent;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.command.ServerCommandSource;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.function.BiConsumer;
+
 /**
  * Represents a setting in the config.
+ * <p>
+ * Values are only changed on the server thread, but the getters of the settings provided by this library may be called on any thread.
+ * Every change is published with release semantics and every getter reads with acquire semantics,
+ * so a reader sees either the old or the new value completely, also for {@code long} and {@code double} values,
+ * together with everything the server thread wrote before the change. Reading does neither lock nor allocate.
  */
 public interface ConfigSetting extends ConfigComponent {
 
@@ -21,4 +30,56 @@ public interface ConfigSetting extends ConfigComponent {
      * @param command the command to add the setting's command to
      */
     void initialize(@NotNull LiteralArgumentBuilder<ServerCommandSource> command);
+
+    /**
+     * Gets the current value of the setting. Used to take snapshots of the config.
+     * The default implementation returns the NBT data written by {@link #toNbt(NbtCompound)}, which changes whenever the value changes.
+     * @return the value of the setting
+     */
+    default @NotNull Object getValue() {
+        NbtCompound nbt = new NbtCompound();
+        toNbt(nbt);
+        return nbt;
+    }
+
+    /**
+     * Gets the index of the setting among all settings of its {@link com.etfl.rules4worlds.ConfigManager ConfigManager}.
+     * Used to read the value of the setting from arrays by its index. The default implementation does not store the index,
+     * the setting is then looked up by identity where needed and can not be synced or overridden.
+     * @return the index of the setting or -1 if the {@code ConfigManager} has not been initialized yet or the setting does not store it
+     */
+    default int getIndex() {
+        return -1;
+    }
+
+    /**
+     * Sets the index of the setting among all settings of its {@link com.etfl.rules4worlds.ConfigManager ConfigManager}.
+     * Should only be called by the {@code ConfigManager}. The default implementation ignores the index.
+     * @param index the index to set
+     */
+    default void setIndex(int index) {}
+
+    /**
+     * Notifies the listeners of the setting about a change of its value.
+     * Should only be called by the {@link com.etfl.rules4worlds.ConfigManager ConfigManager} at the end of a tick.
+     * The default implementation does nothing, since the setting has no listeners.
+     * @param oldValue the value before the change
+     * @param newValue the value after the change
+     */
+    default void notifyListeners(@NotNull Object oldValue, @NotNull Object newValue) {}
+
+    /**
+     * Gets the constraints of the setting that are not part of its default value, like the bounds of its argument type.
+     * Used to detect changes of the config's schema, so the values must be integers, longs, floats, doubles, booleans or strings.
+     * The default implementation returns an empty list, since the setting has no such constraints.
+     * @return the constraints of the setting
+     */
+    default @NotNull List<Object> getSchema() {
+        return List.of();
+    }
+
+    @Override
+    default void forEachSetting(@NotNull String parentPath, @NotNull BiConsumer<String, ConfigSetting> consumer) {
+        consumer.accept(ConfigComponent.childPath(parentPath, getName()), this);
+    }
 }
\ No newline at end of file
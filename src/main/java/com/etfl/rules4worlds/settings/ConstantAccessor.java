@@ -0,0 +1,45 @@
+package com.etfl.rules4worlds.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+
+/**
+ * Hands out the value of a setting as a constant {@link MethodHandle}.
+ * The handle invokes a {@link MutableCallSite} whose target returns the value as a constant,
+ * so the JIT can fold the value like a {@code static final} field into code that invokes the handle from a {@code static final} field.
+ * When the value changes, the target is replaced and all code compiled against the old value is deoptimized.
+ */
+final class ConstantAccessor {
+    private final MutableCallSite callSite;
+    private final MethodHandle invoker;
+
+    /**
+     * Creates a new accessor returning the given value.
+     * @param type the type of the value
+     * @param value the current value
+     */
+    ConstantAccessor(@NotNull Class<?> type, @NotNull Object value) {
+        this.callSite = new MutableCallSite(MethodHandles.constant(type, value));
+        this.invoker = callSite.dynamicInvoker();
+    }
+
+    /**
+     * Gets the handle that returns the current value. It takes no arguments and returns the type of the value.
+     * @return the handle
+     */
+    @NotNull MethodHandle invoker() {
+        return invoker;
+    }
+
+    /**
+     * Makes the handle return the new value. Invalidates the code the old value was folded into, so it should only be called when the value changed.
+     * @param value the new value
+     */
+    void update(@NotNull Object value) {
+        callSite.setTarget(MethodHandles.constant(callSite.type().returnType(), value));
+        MutableCallSite.syncAll(new MutableCallSite[]{callSite});
+    }
+}
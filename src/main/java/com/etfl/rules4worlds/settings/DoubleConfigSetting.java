@@ -1,5 +1,8 @@
 package com.etfl.rules4worlds.settings;
 
+import com.etfl.rules4worlds.SettingsTable;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.mojang.brigadier.arguments.ArgumentType;
 import com.mojang.brigadier.arguments.DoubleArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
@@ -10,7 +13,14 @@ import net.minecraft.text.Text;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.DoublePredicate;
 import java.util.function.Supplier;
 
@@ -22,11 +32,48 @@ import static net.minecraft.util.Formatting.WHITE;
  * Represents a double setting in the config.
  */
 public class DoubleConfigSetting implements ConfigSetting {
+    /**
+     * Used to read and write {@link #value} with acquire/release semantics.
+     */
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(DoubleConfigSetting.class, "value", double.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The value of the setting while it is not bound to a table. Only written on the server thread using {@link #VALUE}.
+     */
     private double value;
     private final double defaultValue;
     private final String name;
     private final ArgumentType<Double> argumentType;
     private final DoublePredicate validator;
+    private int index = -1;
+
+    /**
+     * The table the value is stored in at the index of the setting, {@code null} if it is stored in {@link #value}.
+     */
+    private SettingsTable table = null;
+
+    /**
+     * The accessor handed out by {@link #accessor()}, {@code null} until it is first requested.
+     */
+    private ConstantAccessor accessor = null;
+
+    /**
+     * Receives every new value, {@code null} if the value is not mirrored.
+     */
+    private Consumer<Double> mirror = null;
+
+    /**
+     * The listeners of the setting, an empty immutable list until the first listener is added.
+     */
+    private List<SettingChangeListener<Double>> listeners = List.of();
     private Runnable markDirty = () -> {};
     private Supplier<Map<String, Object>> defaultSupplier = Map::of;
 
@@ -86,14 +133,14 @@ public class DoubleConfigSetting implements ConfigSetting {
 
     @Override
     public void toNbt(@NotNull NbtCompound nbt) {
-        nbt.putDouble(name, value);
+        nbt.putDouble(name, get());
     }
 
     @Override
     public void fromNbt(@NotNull NbtCompound nbt) {
         double value = nbt.getDouble(name);
 
-        this.value = validator.test(value) ? value : defaultValue;
+        store(validator.test(value) ? value : defaultValue);
     }
 
     /**
@@ -101,7 +148,74 @@ public class DoubleConfigSetting implements ConfigSetting {
      * @return the value of the setting
      */
     public double get() {
-        return value;
+        SettingsTable table = this.table;
+
+        return table != null ? Double.longBitsToDouble(table.getBits(index)) : (double) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Gets a method handle of type {@code ()double} that returns the value of the setting as a constant.
+     * When invoked with {@code invokeExact} from a {@code static final} field, the JIT folds the value like a {@code static final} field.
+     * Changing the value invalidates the compiled code, which makes changes expensive, so it should only be used for settings that rarely change.
+     * <b>Should only be called during initialization of the mod or on the server thread.</b>
+     * @return the method handle
+     */
+    public @NotNull MethodHandle accessor() {
+        if (accessor == null) accessor = new ConstantAccessor(double.class, get());
+
+        return accessor.invoker();
+    }
+
+    /**
+     * Mirrors the value of the setting, for example into a static field, so that reading it does not go through the setting.
+     * The consumer is called with the current value right away and with every new value afterward, on the thread that changed it,
+     * which is the server thread unless the setting is changed during initialization.
+     * Unlike listeners, it is also called when the value is loaded on server start.
+     * <b>Should only be called during initialization of the mod.</b>
+     * @param mirror the consumer that receives the values
+     * @return the setting for chaining
+     */
+    public DoubleConfigSetting mirrorTo(@NotNull Consumer<Double> mirror) {
+        this.mirror = mirror;
+        mirror.accept(get());
+        return this;
+    }
+
+    @Override
+    public @NotNull Object getValue() {
+        return get();
+    }
+
+    @Override
+    public @NotNull List<Object> getSchema() {
+        return argumentType instanceof DoubleArgumentType bounds ? List.of(bounds.getMinimum(), bounds.getMaximum()) : List.of();
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Adds a listener that is notified at the end of every tick in which the value of the setting changed.
+     * @param listener the listener to add
+     * @return the setting for chaining
+     */
+    public DoubleConfigSetting addListener(@NotNull SettingChangeListener<Double> listener) {
+        if (listeners.isEmpty()) listeners = new ArrayList<>();
+
+        listeners.add(listener);
+        return this;
+    }
+
+    @Override
+    public void notifyListeners(@NotNull Object oldValue, @NotNull Object newValue) {
+        listeners.forEach(listener -> listener.onChange((Double) oldValue, (Double) newValue));
     }
 
     @Override
@@ -112,12 +226,24 @@ public class DoubleConfigSetting implements ConfigSetting {
         return incorrect;
     }
 
+    @Override
+    public boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        if (reader.peek() != JsonToken.NUMBER) return false;
+
+        double value = reader.nextDouble();
+
+        if (!validator.test(value)) return false;
+
+        map.put(name, value);
+        return true;
+    }
+
     @Override
     public void fromMap(@NotNull Map<String, Object> map) {
         Object obj = map.get(name);
         boolean isNumber = obj instanceof Number;
         double value = isNumber ? ((Number) obj).doubleValue() : defaultValue;
-        this.value = isNumber && validator.test(value) ? value : defaultValue;
+        setValue(isNumber && validator.test(value) ? value : defaultValue);
     }
 
     @Override
@@ -130,12 +256,63 @@ public class DoubleConfigSetting implements ConfigSetting {
         defaultSupplier = supplier;
     }
 
+    /**
+     * Sets the value of the setting and marks it dirty if the value changed.
+     * @param value the new value
+     */
+    private void setValue(double value) {
+        if (Double.compare(get(), value) == 0) return;
+
+        store(value);
+        markDirty.run();
+    }
+
+    /**
+     * Stores the value in the table if the setting is bound to one or in the field otherwise, with release semantics.
+     * Updates the accessor and the mirror if the value changed.
+     * @param value the value to store
+     */
+    private void store(double value) {
+        boolean changed = Double.compare(get(), value) != 0;
+
+        if (table != null) table.setBits(index, Double.doubleToRawLongBits(value));
+        else VALUE.setRelease(this, value);
+
+        if (!changed) return;
+        if (accessor != null) accessor.update(value);
+        if (mirror != null) mirror.accept(value);
+    }
+
+    /**
+     * Loads the value from its raw bits as stored by {@link CompactNbt}, without marking the setting dirty.
+     * Falls back to the default value if the value is not valid.
+     * @param bits the raw bits of the value
+     */
+    void loadBits(long bits) {
+        double value = Double.longBitsToDouble(bits);
+
+        store(validator.test(value) ? value : defaultValue);
+    }
+
+    /**
+     * Moves the value of the setting into the table, which then stores it instead of the field. Should only be called by the {@link SettingsTable}.
+     * @param table the table to store the value in
+     */
+    public void bind(@NotNull SettingsTable table) {
+        double value = get();
+
+        table.setBits(index, Double.doubleToRawLongBits(value));
+        this.table = table;
+    }
+
     /**
      * Called when the command to get the value of the setting is executed.
      * @param context the command context
      * @return a success value (15 is value is true and 0 if false)
      */
     private int get(CommandContext<ServerCommandSource> context) {
+        final double value = get();
+
         context.getSource().sendFeedback(
                 () -> Text.literal("Setting: " + name + " is currently set to: " + value).formatted(WHITE),
                 false);
@@ -150,14 +327,12 @@ public class DoubleConfigSetting implements ConfigSetting {
      * @return a success value (15 is value is true and 0 if false)
      */
     private int set(CommandContext<ServerCommandSource> context) {
-        markDirty.run();
-
         final double value = DoubleArgumentType.getDouble(context, name);
 
         boolean valueChanged = validator.test(value);
 
         if (valueChanged) {
-            this.value = value;
+            setValue(value);
         }
 
         context.getSource().sendFeedback(
@@ -174,12 +349,10 @@ public class DoubleConfigSetting implements ConfigSetting {
      * @return a success value (15 is value is true and 0 if false)
      */
     private int reset(CommandContext<ServerCommandSource> context) {
-        markDirty.run();
-
         fromMap(defaultSupplier.get());
 
         context.getSource().sendFeedback(
-                () -> Text.literal("Setting: " + name + " is currently set to: " + value).formatted(WHITE),
+                () -> Text.literal("Setting: " + name + " is currently set to: " + get()).formatted(WHITE),
                 true);
 
         return 15;
@@ -1,5 +1,7 @@
 package com.etfl.rules4worlds.settings;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import net.minecraft.nbt.NbtCompound;
@@ -8,7 +10,14 @@ import net.minecraft.text.Text;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static net.minecraft.server.command.CommandManager.literal;
@@ -19,9 +28,37 @@ import static net.minecraft.util.Formatting.WHITE;
  */
 public class EnumConfigSetting<T extends Enum<T> & EnumSettingType<T>> implements
         ConfigSetting{
+    /**
+     * Used to read and write {@link #value} with acquire/release semantics.
+     */
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(EnumConfigSetting.class, "value", Enum.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The value of the setting. Only written on the server thread using {@link #VALUE}.
+     */
     private T value;
     private final T defaultValue;
     private final String name;
+    private int index = -1;
+    private final List<SettingChangeListener<T>> listeners = new ArrayList<>();
+
+    /**
+     * The accessor handed out by {@link #accessor()}, {@code null} until it is first requested.
+     */
+    private ConstantAccessor accessor = null;
+
+    /**
+     * Receives every new value, {@code null} if the value is not mirrored.
+     */
+    private Consumer<T> mirror = null;
     private Runnable markDirty = () -> {};
     private Supplier<Map<String, Object>> defaultSupplier = Map::of;
 
@@ -68,15 +105,84 @@ public class EnumConfigSetting<T extends Enum<T> & EnumSettingType<T>> implement
     public void fromNbt(@NotNull NbtCompound nbt) {
         T value = this.value.fromString(nbt.getString(name));
 
-        this.value = value != null ? value : defaultValue;
+        store(value != null ? value : defaultValue);
     }
 
     /**
      * Get the value of the setting.
      * @return the value of the setting
      */
+    @SuppressWarnings("unchecked")
     public T get() {
-        return value;
+        return (T) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Gets a method handle that takes no arguments and returns the value of the setting as a constant of the enum type.
+     * When invoked with {@code invokeExact} from a {@code static final} field, the JIT folds the value like a {@code static final} field.
+     * Changing the value invalidates the compiled code, which makes changes expensive, so it should only be used for settings that rarely change.
+     * <b>Should only be called during initialization of the mod or on the server thread.</b>
+     * @return the method handle
+     */
+    public @NotNull MethodHandle accessor() {
+        if (accessor == null) accessor = new ConstantAccessor(defaultValue.getDeclaringClass(), get());
+
+        return accessor.invoker();
+    }
+
+    /**
+     * Mirrors the value of the setting, for example into a static field, so that reading it does not go through the setting.
+     * The consumer is called with the current value right away and with every new value afterward, on the thread that changed it,
+     * which is the server thread unless the setting is changed during initialization.
+     * Unlike listeners, it is also called when the value is loaded on server start.
+     * <b>Should only be called during initialization of the mod.</b>
+     * @param mirror the consumer that receives the values
+     * @return the setting for chaining
+     */
+    public EnumConfigSetting<T> mirrorTo(@NotNull Consumer<T> mirror) {
+        this.mirror = mirror;
+        mirror.accept(get());
+        return this;
+    }
+
+    @Override
+    public @NotNull Object getValue() {
+        return get();
+    }
+
+    @Override
+    public @NotNull List<Object> getSchema() {
+        List<Object> names = new ArrayList<>();
+
+        for (T constant : defaultValue.getDeclaringClass().getEnumConstants()) names.add(constant.toString());
+
+        return names;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Adds a listener that is notified at the end of every tick in which the value of the setting changed.
+     * @param listener the listener to add
+     * @return the setting for chaining
+     */
+    public EnumConfigSetting<T> addListener(@NotNull SettingChangeListener<T> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void notifyListeners(@NotNull Object oldValue, @NotNull Object newValue) {
+        listeners.forEach(listener -> listener.onChange((T) oldValue, (T) newValue));
     }
 
     @Override
@@ -87,11 +193,23 @@ public class EnumConfigSetting<T extends Enum<T> & EnumSettingType<T>> implement
         return incorrect;
     }
 
+    @Override
+    public boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        if (reader.peek() != JsonToken.STRING) return false;
+
+        String value = reader.nextString();
+
+        if (this.value.fromString(value) == null) return false;
+
+        map.put(name, value);
+        return true;
+    }
+
     @Override
     public void fromMap(@NotNull Map<String, Object> map) {
         T value = this.value.fromString(map.getOrDefault(name, defaultValue).toString());
 
-        if (value != null) this.value = value;
+        if (value != null) setValue(value);
     }
 
     @Override
@@ -104,6 +222,55 @@ public class EnumConfigSetting<T extends Enum<T> & EnumSettingType<T>> implement
         defaultSupplier = supplier;
     }
 
+    /**
+     * Loads the value from its ordinal as stored by {@link CompactNbt}, without marking the setting dirty.
+     * Falls back to the default value if there is no constant with the ordinal.
+     * @param ordinal the ordinal of the value
+     */
+    void loadOrdinal(int ordinal) {
+        T[] constants = defaultValue.getDeclaringClass().getEnumConstants();
+
+        store(ordinal >= 0 && ordinal < constants.length ? constants[ordinal] : defaultValue);
+    }
+
+    /**
+     * Gets the names of the constants of the setting's enum, which determine the meaning of the stored ordinals.
+     * @return the names of the constants in the order of their ordinals
+     */
+    @NotNull String[] getConstantNames() {
+        T[] constants = defaultValue.getDeclaringClass().getEnumConstants();
+        String[] names = new String[constants.length];
+
+        for (int i = 0; i < constants.length; i++) names[i] = constants[i].name();
+
+        return names;
+    }
+
+    /**
+     * Sets the value of the setting and marks it dirty if the value changed.
+     * @param value the new value
+     */
+    private void setValue(T value) {
+        if (this.value == value) return;
+
+        store(value);
+        markDirty.run();
+    }
+
+    /**
+     * Stores the value with release semantics and updates the accessor and the mirror if the value changed.
+     * @param value the value to store
+     */
+    private void store(T value) {
+        boolean changed = get() != value;
+
+        VALUE.setRelease(this, value);
+
+        if (!changed) return;
+        if (accessor != null) accessor.update(value);
+        if (mirror != null) mirror.accept(value);
+    }
+
     /**
      * Called when the command to get the value of the setting is executed.
      * @param context the command context
@@ -124,9 +291,7 @@ public class EnumConfigSetting<T extends Enum<T> & EnumSettingType<T>> implement
      * @return a success value (15 is value is true and 0 if false)
      */
     private int set(CommandContext<ServerCommandSource> context, T value) {
-        markDirty.run();
-
-        this.value = value;
+        setValue(value);
 
         context.getSource().sendFeedback(
                 () -> Text.literal("ConfigSetting" + name + " is currently set to: " + value.toString()).formatted(WHITE),
@@ -142,8 +307,6 @@ public class EnumConfigSetting<T extends Enum<T> & EnumSettingType<T>> implement
      * @return a success value (15 is value is true and 0 if false)
      */
     private int reset(CommandContext<ServerCommandSource> context) {
-        markDirty.run();
-
         fromMap(defaultSupplier.get());
 
         context.getSource().sendFeedback(
@@ -1,5 +1,8 @@
 package com.etfl.rules4worlds.settings;
 
+import com.etfl.rules4worlds.SettingsTable;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.mojang.brigadier.arguments.ArgumentType;
 import com.mojang.brigadier.arguments.FloatArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
@@ -11,7 +14,14 @@ import net.minecraft.text.Text;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static net.minecraft.server.command.CommandManager.argument;
@@ -22,11 +32,48 @@ import static net.minecraft.util.Formatting.WHITE;
  * Represents a float setting in the config.
  */
 public class FloatConfigSetting implements ConfigSetting{
+    /**
+     * Used to read and write {@link #value} with acquire/release semantics.
+     */
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(FloatConfigSetting.class, "value", float.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The value of the setting while it is not bound to a table. Only written on the server thread using {@link #VALUE}.
+     */
     private float value;
     private final float defaultValue;
     private final String name;
     private final ArgumentType<Float> argumentType;
     private final FloatPredicate validator;
+    private int index = -1;
+
+    /**
+     * The table the value is stored in at the index of the setting, {@code null} if it is stored in {@link #value}.
+     */
+    private SettingsTable table = null;
+
+    /**
+     * The accessor handed out by {@link #accessor()}, {@code null} until it is first requested.
+     */
+    private ConstantAccessor accessor = null;
+
+    /**
+     * Receives every new value, {@code null} if the value is not mirrored.
+     */
+    private Consumer<Float> mirror = null;
+
+    /**
+     * The listeners of the setting, an empty immutable list until the first listener is added.
+     */
+    private List<SettingChangeListener<Float>> listeners = List.of();
     private Runnable markDirty = () -> {};
     private Supplier<Map<String, Object>> defaultSupplier = Map::of;
 
@@ -86,14 +133,14 @@ public class FloatConfigSetting implements ConfigSetting{
 
     @Override
     public void toNbt(@NotNull NbtCompound nbt) {
-        nbt.putFloat(name, value);
+        nbt.putFloat(name, get());
     }
 
     @Override
     public void fromNbt(@NotNull NbtCompound nbt) {
         float value = nbt.getFloat(name);
 
-        this.value = validator.test(value) ? value : defaultValue;
+        store(validator.test(value) ? value : defaultValue);
     }
 
     /**
@@ -101,7 +148,74 @@ public class FloatConfigSetting implements ConfigSetting{
      * @return the value of the setting
      */
     public float get() {
-        return value;
+        SettingsTable table = this.table;
+
+        return table != null ? Float.intBitsToFloat((int) table.getBits(index)) : (float) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Gets a method handle of type {@code ()float} that returns the value of the setting as a constant.
+     * When invoked with {@code invokeExact} from a {@code static final} field, the JIT folds the value like a {@code static final} field.
+     * Changing the value invalidates the compiled code, which makes changes expensive, so it should only be used for settings that rarely change.
+     * <b>Should only be called during initialization of the mod or on the server thread.</b>
+     * @return the method handle
+     */
+    public @NotNull MethodHandle accessor() {
+        if (accessor == null) accessor = new ConstantAccessor(float.class, get());
+
+        return accessor.invoker();
+    }
+
+    /**
+     * Mirrors the value of the setting, for example into a static field, so that reading it does not go through the setting.
+     * The consumer is called with the current value right away and with every new value afterward, on the thread that changed it,
+     * which is the server thread unless the setting is changed during initialization.
+     * Unlike listeners, it is also called when the value is loaded on server start.
+     * <b>Should only be called during initialization of the mod.</b>
+     * @param mirror the consumer that receives the values
+     * @return the setting for chaining
+     */
+    public FloatConfigSetting mirrorTo(@NotNull Consumer<Float> mirror) {
+        this.mirror = mirror;
+        mirror.accept(get());
+        return this;
+    }
+
+    @Override
+    public @NotNull Object getValue() {
+        return get();
+    }
+
+    @Override
+    public @NotNull List<Object> getSchema() {
+        return argumentType instanceof FloatArgumentType bounds ? List.of(bounds.getMinimum(), bounds.getMaximum()) : List.of();
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Adds a listener that is notified at the end of every tick in which the value of the setting changed.
+     * @param listener the listener to add
+     * @return the setting for chaining
+     */
+    public FloatConfigSetting addListener(@NotNull SettingChangeListener<Float> listener) {
+        if (listeners.isEmpty()) listeners = new ArrayList<>();
+
+        listeners.add(listener);
+        return this;
+    }
+
+    @Override
+    public void notifyListeners(@NotNull Object oldValue, @NotNull Object newValue) {
+        listeners.forEach(listener -> listener.onChange((Float) oldValue, (Float) newValue));
     }
 
     @Override
@@ -112,12 +226,24 @@ public class FloatConfigSetting implements ConfigSetting{
         return incorrect;
     }
 
+    @Override
+    public boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        if (reader.peek() != JsonToken.NUMBER) return false;
+
+        float value = Float.parseFloat(reader.nextString());
+
+        if (!validator.test(value)) return false;
+
+        map.put(name, value);
+        return true;
+    }
+
     @Override
     public void fromMap(@NotNull Map<String, Object> map) {
         Object obj = map.get(name);
         boolean isNumber = obj instanceof Number;
         float value = isNumber ? ((Number) obj).floatValue() : defaultValue;
-        this.value = isNumber && validator.test(value) ? value : defaultValue;
+        setValue(isNumber && validator.test(value) ? value : defaultValue);
     }
 
     @Override
@@ -130,12 +256,63 @@ public class FloatConfigSetting implements ConfigSetting{
         defaultSupplier = supplier;
     }
 
+    /**
+     * Sets the value of the setting and marks it dirty if the value changed.
+     * @param value the new value
+     */
+    private void setValue(float value) {
+        if (Float.compare(get(), value) == 0) return;
+
+        store(value);
+        markDirty.run();
+    }
+
+    /**
+     * Stores the value in the table if the setting is bound to one or in the field otherwise, with release semantics.
+     * Updates the accessor and the mirror if the value changed.
+     * @param value the value to store
+     */
+    private void store(float value) {
+        boolean changed = Float.compare(get(), value) != 0;
+
+        if (table != null) table.setBits(index, Float.floatToRawIntBits(value));
+        else VALUE.setRelease(this, value);
+
+        if (!changed) return;
+        if (accessor != null) accessor.update(value);
+        if (mirror != null) mirror.accept(value);
+    }
+
+    /**
+     * Loads the value from its raw bits as stored by {@link CompactNbt}, without marking the setting dirty.
+     * Falls back to the default value if the value is not valid.
+     * @param bits the raw bits of the value
+     */
+    void loadBits(long bits) {
+        float value = Float.intBitsToFloat((int) bits);
+
+        store(validator.test(value) ? value : defaultValue);
+    }
+
+    /**
+     * Moves the value of the setting into the table, which then stores it instead of the field. Should only be called by the {@link SettingsTable}.
+     * @param table the table to store the value in
+     */
+    public void bind(@NotNull SettingsTable table) {
+        float value = get();
+
+        table.setBits(index, Float.floatToRawIntBits(value));
+        this.table = table;
+    }
+
     /**
      * Called when the command to get the value of the setting is executed.
      * @param context the command context
      * @return a success value (15 is value is true and 0 if false)
      */
     private int get(CommandContext<ServerCommandSource> context) {
+        final float value = get();
+
 
         context.getSource().sendFeedback(
                 () -> Text.literal("Setting: " + name + " is currently set to: " + value).formatted(WHITE),
@@ -151,14 +328,12 @@ public class FloatConfigSetting implements ConfigSetting{
      * @return a success value (15 is value is true and 0 if false)
      */
     private int set(CommandContext<ServerCommandSource> context) {
-        markDirty.run();
-
         final float value = FloatArgumentType.getFloat(context, name);
 
         boolean valueChanged = validator.test(value);
 
         if (valueChanged) {
-            this.value = value;
+            setValue(value);
         }
 
         context.getSource().sendFeedback(
@@ -175,12 +350,10 @@ public class FloatConfigSetting implements ConfigSetting{
      * @return a success value (15 is value is true and 0 if false)
      */
     private int reset(CommandContext<ServerCommandSource> context) {
-        markDirty.run();
-
         fromMap(defaultSupplier.get());
 
         context.getSource().sendFeedback(
-                () -> Text.literal("Setting: " + name + " is currently set to: " + value).formatted(WHITE),
+                () -> Text.literal("Setting: " + name + " is currently set to: " + get()).formatted(WHITE),
                 true);
 
         return 15;
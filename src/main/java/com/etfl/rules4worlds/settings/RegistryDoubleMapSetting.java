@@ -0,0 +1,470 @@
+package com.etfl.rules4worlds.settings;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.argument.IdentifierArgumentType;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.registry.Registry;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.function.DoublePredicate;
+import java.util.function.Supplier;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+import static net.minecraft.util.Formatting.WHITE;
+
+/**
+ * Represents a setting in the config containing a double for each entry of a registry, for example a hardness multiplier per block.
+ * <p>
+ * The value of the setting is the map of the identifiers that have their own value, written as json object or NBT compound.
+ * All other entries have the missing value. Identifiers that are not registered are kept, so that the config stays valid while a mod is missing.
+ * <p>
+ * The values are resolved into an array indexed by the raw IDs of the registry, so that {@link #get(Object)} only reads the array.
+ * The array is resolved when the setting is created, whenever the values change and when the server loads its tags.
+ * Only use static registries, whose raw IDs do not change while the game is running.
+ * @param <T> the type of the registry entries
+ */
+public class RegistryDoubleMapSetting<T> implements ConfigSetting {
+    /**
+     * Used to read and write {@link #entries} and {@link #values} with acquire/release semantics.
+     */
+    private static final VarHandle ENTRIES;
+    private static final VarHandle VALUES;
+
+    static {
+        try {
+            ENTRIES = MethodHandles.lookup().findVarHandle(RegistryDoubleMapSetting.class, "entries", Map.class);
+            VALUES = MethodHandles.lookup().findVarHandle(RegistryDoubleMapSetting.class, "values", double[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The values by identifier, not modifiable. Only written on the server thread using {@link #ENTRIES}.
+     */
+    private Map<String, Double> entries;
+
+    /**
+     * The values by raw ID. Replaced instead of modified, so that it can be read on any thread. Only written using {@link #VALUES}.
+     */
+    private double[] values;
+
+    private final Map<String, Double> defaultValue;
+    private final double missingValue;
+    private final String name;
+    private final Registry<T> registry;
+    private final ArgumentType<Double> argumentType;
+    private final DoublePredicate validator;
+    private int index = -1;
+    private final List<SettingChangeListener<Map<String, Double>>> listeners = new ArrayList<>();
+    private Runnable markDirty = () -> {};
+    private Supplier<Map<String, Object>> defaultSupplier = Map::of;
+
+    /**
+     * Creates a new registry double map setting with the given name, registry, argument type and missing value, without any default values.
+     * @param name the name of the setting
+     * @param registry the registry the keys belong to
+     * @param argumentType the argument type for the command
+     * @param missingValue the value of the entries without their own value
+     */
+    public RegistryDoubleMapSetting(@NotNull @NotBlank final String name,
+                                 @NotNull final Registry<T> registry,
+                                 @NotNull final ArgumentType<Double> argumentType,
+                                 final double missingValue) {
+        this(name, registry, argumentType, missingValue, Map.of());
+    }
+
+    /**
+     * Creates a new registry double map setting with the given name, registry, argument type, missing value and default values.
+     * @param name the name of the setting
+     * @param registry the registry the keys belong to
+     * @param argumentType the argument type for the command
+     * @param missingValue the value of the entries without their own value
+     * @param defaultValue the default values by identifier
+     * @throws IllegalArgumentException if a key is not a valid identifier or a value is not valid
+     */
+    public RegistryDoubleMapSetting(@NotNull @NotBlank final String name,
+                                 @NotNull final Registry<T> registry,
+                                 @NotNull final ArgumentType<Double> argumentType,
+                                 final double missingValue,
+                                 @NotNull final Map<String, Double> defaultValue) {
+        this.name = name;
+        this.registry = registry;
+        this.argumentType = argumentType;
+        this.missingValue = missingValue;
+        this.validator = argumentType instanceof DoubleArgumentType ?
+                value -> (value >= ((DoubleArgumentType) argumentType).getMinimum()
+                        && value <= ((DoubleArgumentType) argumentType).getMaximum())
+                : value -> true;
+
+        Map<String, Double> entries = normalize(defaultValue);
+        if (entries == null) throw new IllegalArgumentException("Invalid default values " + defaultValue + " of setting " + name);
+
+        this.defaultValue = entries;
+        this.entries = entries;
+        this.values = resolve(entries);
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return name;
+    }
+
+    @Override
+    public void initialize(@NotNull LiteralArgumentBuilder<ServerCommandSource> command) {
+        command.then(literal(name)
+                .executes(this::list)
+                .then(literal("get")
+                        .then(argument("key", IdentifierArgumentType.identifier())
+                                .suggests((context, builder) -> CommandSource.suggestIdentifiers(registry.getIds(), builder))
+                                .executes(this::get)))
+                .then(literal("set")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("key", IdentifierArgumentType.identifier())
+                                .suggests((context, builder) -> CommandSource.suggestIdentifiers(registry.getIds(), builder))
+                                .then(argument("value", argumentType)
+                                        .executes(this::set))))
+                .then(literal("remove")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("key", IdentifierArgumentType.identifier())
+                                .suggests((context, builder) -> CommandSource.suggestMatching(get().keySet(), builder))
+                                .executes(this::remove)))
+                .then(literal("default")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .executes(this::reset)
+                )
+        );
+    }
+
+    @Override
+    public void toNbt(@NotNull NbtCompound nbt) {
+        NbtCompound values = new NbtCompound();
+
+        get().forEach(values::putDouble);
+
+        nbt.put(name, values);
+    }
+
+    @Override
+    public void fromNbt(@NotNull NbtCompound nbt) {
+        if (!nbt.contains(name, NbtElement.COMPOUND_TYPE)) {
+            store(defaultValue);
+            return;
+        }
+
+        NbtCompound values = nbt.getCompound(name);
+        Map<String, Double> entries = new HashMap<>();
+
+        for (String key : values.getKeys()) {
+            if (values.contains(key, NbtElement.DOUBLE_TYPE)) entries.put(key, values.getDouble(key));
+        }
+
+        Map<String, Double> value = normalize(entries);
+        store(value != null ? value : defaultValue);
+    }
+
+    /**
+     * Gets the values of the entries that have their own value.
+     * @return the values by identifier, not modifiable
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull Map<String, Double> get() {
+        return (Map<String, Double>) ENTRIES.getAcquire(this);
+    }
+
+    /**
+     * Gets the value of the entry. Looks up the raw ID of the entry in the registry and reads the value from the array,
+     * use {@link #getByRawId(int)} if the raw ID is already known.
+     * @param key the entry to get the value of
+     * @return the value of the entry or the missing value if it has no own value
+     */
+    public double get(@NotNull T key) {
+        return getByRawId(registry.getRawId(key));
+    }
+
+    /**
+     * Gets the value of the entry with the given raw ID.
+     * @param rawId the raw ID of the entry in the registry
+     * @return the value of the entry or the missing value if it has no own value
+     */
+    public double getByRawId(int rawId) {
+        double[] values = (double[]) VALUES.getAcquire(this);
+
+        return rawId >= 0 && rawId < values.length ? values[rawId] : missingValue;
+    }
+
+    @Override
+    public @NotNull Object getValue() {
+        return get();
+    }
+
+    @Override
+    public @NotNull List<Object> getSchema() {
+        return argumentType instanceof DoubleArgumentType bounds ? List.of(bounds.getMinimum(), bounds.getMaximum(), missingValue) : List.of(missingValue);
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Adds a listener that is notified at the end of every tick in which the values of the setting changed.
+     * @param listener the listener to add
+     * @return the setting for chaining
+     */
+    public RegistryDoubleMapSetting<T> addListener(@NotNull SettingChangeListener<Map<String, Double>> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void notifyListeners(@NotNull Object oldValue, @NotNull Object newValue) {
+        listeners.forEach(listener -> listener.onChange((Map<String, Double>) oldValue, (Map<String, Double>) newValue));
+    }
+
+    @Override
+    public boolean validateOrSetDefault(@NotNull Map<String, Object> map) {
+        Object obj = map.get(name);
+        boolean incorrect = !(obj instanceof Map<?, ?> values) || normalize(values) == null;
+
+        if (incorrect) map.put(name, new LinkedHashMap<>(defaultValue));
+        return incorrect;
+    }
+
+    @Override
+    public boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) return false;
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (normalize(key) == null || reader.peek() != JsonToken.NUMBER) return false;
+
+            double value = reader.nextDouble();
+            if (!validator.test(value)) return false;
+
+            values.put(key, value);
+        }
+
+        reader.endObject();
+        map.put(name, values);
+        return true;
+    }
+
+    @Override
+    public void fromMap(@NotNull Map<String, Object> map) {
+        Map<String, Double> entries = map.get(name) instanceof Map<?, ?> values ? normalize(values) : null;
+
+        setValue(entries != null ? entries : defaultValue);
+    }
+
+    @Override
+    public void setMarkDirtyRunnable(@NotNull Runnable runnable) {
+        this.markDirty = runnable;
+    }
+
+    @Override
+    public void setDefaultSupplier(@NotNull Supplier<Map<String, Object>> supplier) {
+        defaultSupplier = supplier;
+    }
+
+    /**
+     * Sets the values of the setting and marks it dirty if they changed.
+     * @param entries the new values by identifier
+     */
+    private void setValue(@NotNull Map<String, Double> entries) {
+        if (get().equals(entries)) return;
+
+        store(entries);
+        markDirty.run();
+    }
+
+    /**
+     * Stores the values and their resolved array with release semantics.
+     * @param entries the normalized values by identifier
+     */
+    private void store(@NotNull Map<String, Double> entries) {
+        ENTRIES.setRelease(this, entries);
+        VALUES.setRelease(this, resolve(entries));
+    }
+
+    /**
+     * Resolves the values again, called by {@link RegistrySettings} when the tags were loaded.
+     */
+    void onTagsLoaded() {
+        VALUES.setRelease(this, resolve(get()));
+    }
+
+    /**
+     * Resolves the values into an array indexed by the raw IDs of the registry. Identifiers that are not registered are skipped.
+     * @param entries the normalized values by identifier
+     * @return a new array
+     */
+    private double @NotNull [] resolve(@NotNull Map<String, Double> entries) {
+        double[] values = new double[registry.size()];
+        Arrays.fill(values, missingValue);
+
+        entries.forEach((key, value) -> {
+            Identifier id = Identifier.tryParse(key);
+            if (registry.containsId(id)) values[registry.getRawId(registry.get(id))] = value;
+        });
+
+        return values;
+    }
+
+    /**
+     * Normalizes the values by adding the default namespace to the identifiers where it is missing and sorting them by identifier.
+     * @param entries the values by identifier
+     * @return the normalized values, not modifiable, or {@code null} if a key is not a valid identifier or a value is not valid
+     */
+    private @Nullable Map<String, Double> normalize(@NotNull Map<?, ?> entries) {
+        Map<String, Double> normalized = new TreeMap<>();
+
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            String key = entry.getKey() instanceof String string ? normalize(string) : null;
+            boolean isNumber = entry.getValue() instanceof Number;
+
+            if (key == null || !isNumber || !validator.test(((Number) entry.getValue()).doubleValue())) return null;
+
+            normalized.put(key, ((Number) entry.getValue()).doubleValue());
+        }
+
+        return Collections.unmodifiableMap(normalized);
+    }
+
+    /**
+     * Normalizes an identifier by adding the default namespace if it is missing.
+     * @param key the identifier to normalize
+     * @return the normalized identifier or {@code null} if it is not a valid identifier
+     */
+    private static @Nullable String normalize(@NotNull String key) {
+        Identifier id = Identifier.tryParse(key);
+
+        return id != null ? id.toString() : null;
+    }
+
+    /**
+     * Called when the command to list the values of the setting is executed.
+     * @param context the command context
+     * @return the number of entries that have their own value
+     */
+    private int list(CommandContext<ServerCommandSource> context) {
+        final Map<String, Double> entries = get();
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + entries + ", all other entries: " + missingValue).formatted(WHITE),
+                false);
+
+        return entries.size();
+    }
+
+    /**
+     * Called when the command to get the value of an entry is executed.
+     * @param context the command context
+     * @return a success value (15 is value is true and 0 if false)
+     */
+    private int get(CommandContext<ServerCommandSource> context) {
+        final String key = IdentifierArgumentType.getIdentifier(context, "key").toString();
+        final double value = get().getOrDefault(key, missingValue);
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + value + " for " + key).formatted(WHITE),
+                false);
+
+        return value > 0 ? 15 : 0;
+    }
+
+    /**
+     * Called when the command to set the value of an entry is executed. Only sets values of registered identifiers.
+     * @param context the command context
+     * @return a success value (15 is value is true and 0 if false)
+     */
+    private int set(CommandContext<ServerCommandSource> context) {
+        final Identifier id = IdentifierArgumentType.getIdentifier(context, "key");
+        final double value = DoubleArgumentType.getDouble(context, "value");
+
+        if (!registry.containsId(id)) {
+            context.getSource().sendError(Text.literal("Unknown entry: " + id));
+            return 0;
+        }
+
+        boolean valueChanged = validator.test(value);
+
+        if (valueChanged) {
+            Map<String, Double> entries = new TreeMap<>(get());
+            entries.put(id.toString(), value);
+            setValue(Collections.unmodifiableMap(entries));
+        }
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + get().getOrDefault(id.toString(), missingValue) + " for " + id).formatted(WHITE),
+                valueChanged);
+
+        return value > 0 ? 15 : 0;
+    }
+
+    /**
+     * Called when the command to remove the value of an entry is executed. The entry has the missing value afterward.
+     * @param context the command context
+     * @return 15 if the entry had its own value and 0 otherwise
+     */
+    private int remove(CommandContext<ServerCommandSource> context) {
+        final String key = IdentifierArgumentType.getIdentifier(context, "key").toString();
+        Map<String, Double> entries = new TreeMap<>(get());
+
+        if (entries.remove(key) == null) {
+            context.getSource().sendError(Text.literal("Setting: " + name + " has no value for: " + key));
+            return 0;
+        }
+
+        setValue(Collections.unmodifiableMap(entries));
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + missingValue + " for " + key).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+
+    /**
+     * Called when the command to reset the values of the setting is executed.
+     * Resets the values of the setting to their default values.
+     * @param context the command context
+     * @return a success value (15 is value is true and 0 if false)
+     */
+    private int reset(CommandContext<ServerCommandSource> context) {
+        fromMap(defaultSupplier.get());
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + get()).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+}
@@ -0,0 +1,455 @@
+package com.etfl.rules4worlds.settings;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import net.minecraft.command.CommandSource;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtString;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+import static net.minecraft.util.Formatting.WHITE;
+
+/**
+ * Represents a setting in the config containing a set of entries of a registry, for example the blocks a rule applies to.
+ * <p>
+ * The value of the setting is the list of its entries as written in the config file: identifiers like {@code minecraft:stone}
+ * and tags like {@code #minecraft:logs}. Entries that are not registered are kept, so that the config stays valid while a mod is missing.
+ * <p>
+ * The entries are resolved into a {@link BitSet} over the raw IDs of the registry, so that {@link #contains(Object)} only tests a bit.
+ * The bitset is resolved when the setting is created, whenever the entries change and when the server loads its tags,
+ * so tags only contain their members once the server loaded its data packs.
+ * Only use static registries, whose raw IDs do not change while the game is running.
+ * @param <T> the type of the registry entries
+ */
+public class RegistrySetSetting<T> implements ConfigSetting {
+    /**
+     * The prefix of entries that refer to a tag.
+     */
+    private static final String TAG_PREFIX = "#";
+
+    /**
+     * Used to read and write {@link #entries} and {@link #members} with acquire/release semantics.
+     */
+    private static final VarHandle ENTRIES;
+    private static final VarHandle MEMBERS;
+
+    static {
+        try {
+            ENTRIES = MethodHandles.lookup().findVarHandle(RegistrySetSetting.class, "entries", List.class);
+            MEMBERS = MethodHandles.lookup().findVarHandle(RegistrySetSetting.class, "members", BitSet.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The entries of the setting, not modifiable. Only written on the server thread using {@link #ENTRIES}.
+     */
+    private List<String> entries;
+
+    /**
+     * The raw IDs of the resolved entries. Replaced instead of modified, so that it can be read on any thread. Only written using {@link #MEMBERS}.
+     */
+    private BitSet members;
+
+    private final List<String> defaultValue;
+    private final String name;
+    private final Registry<T> registry;
+    private int index = -1;
+    private final List<SettingChangeListener<List<String>>> listeners = new ArrayList<>();
+    private Runnable markDirty = () -> {};
+    private Supplier<Map<String, Object>> defaultSupplier = Map::of;
+
+    /**
+     * Creates a new registry set setting with the given name, registry and default entries.
+     * @param name the name of the setting
+     * @param registry the registry the entries belong to
+     * @param defaultValue the default entries, identifiers or tags prefixed with {@code #}
+     * @throws IllegalArgumentException if an entry is not a valid identifier
+     */
+    public RegistrySetSetting(@NotNull @NotBlank final String name,
+                              @NotNull final Registry<T> registry,
+                              @NotNull final List<String> defaultValue) {
+        List<String> entries = normalize(defaultValue);
+        if (entries == null) throw new IllegalArgumentException("Invalid default entries " + defaultValue + " of setting " + name);
+
+        this.name = name;
+        this.registry = registry;
+        this.defaultValue = entries;
+        this.entries = entries;
+        this.members = resolve(entries);
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return name;
+    }
+
+    @Override
+    public void initialize(@NotNull LiteralArgumentBuilder<ServerCommandSource> command) {
+        command.then(literal(name)
+                .executes(this::get)
+                .then(literal("list")
+                        .executes(this::get))
+                .then(literal("add")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("entry", StringArgumentType.greedyString())
+                                .suggests(this::suggestAdd)
+                                .executes(this::add)))
+                .then(literal("remove")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .then(argument("entry", StringArgumentType.greedyString())
+                                .suggests(this::suggestRemove)
+                                .executes(this::remove)))
+                .then(literal("default")
+                        .requires(serverCommandSource -> serverCommandSource.hasPermissionLevel(2))
+                        .executes(this::reset)
+                )
+        );
+    }
+
+    @Override
+    public void toNbt(@NotNull NbtCompound nbt) {
+        NbtList list = new NbtList();
+
+        for (String entry : get()) list.add(NbtString.of(entry));
+
+        nbt.put(name, list);
+    }
+
+    @Override
+    public void fromNbt(@NotNull NbtCompound nbt) {
+        if (!nbt.contains(name, NbtElement.LIST_TYPE)) {
+            store(defaultValue);
+            return;
+        }
+
+        NbtList list = nbt.getList(name, NbtElement.STRING_TYPE);
+        List<String> entries = new ArrayList<>(list.size());
+
+        for (int i = 0; i < list.size(); i++) entries.add(list.getString(i));
+
+        List<String> value = normalize(entries);
+        store(value != null ? value : defaultValue);
+    }
+
+    /**
+     * Gets the entries of the setting.
+     * @return the entries, not modifiable
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull List<String> get() {
+        return (List<String>) ENTRIES.getAcquire(this);
+    }
+
+    /**
+     * Checks if the value is one of the entries of the setting or is in one of its tags.
+     * Looks up the raw ID of the value in the registry and tests its bit, use {@link #containsRawId(int)} if the raw ID is already known.
+     * @param value the value to check
+     * @return {@code true} if the setting contains the value, {@code false} otherwise
+     */
+    public boolean contains(@NotNull T value) {
+        return containsRawId(registry.getRawId(value));
+    }
+
+    /**
+     * Checks if the entry with the given raw ID is one of the entries of the setting or is in one of its tags.
+     * @param rawId the raw ID of the entry in the registry
+     * @return {@code true} if the setting contains the entry, {@code false} otherwise
+     */
+    public boolean containsRawId(int rawId) {
+        return rawId >= 0 && ((BitSet) MEMBERS.getAcquire(this)).get(rawId);
+    }
+
+    @Override
+    public @NotNull Object getValue() {
+        return get();
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Adds a listener that is notified at the end of every tick in which the entries of the setting changed.
+     * Listeners are not notified when the members of a tag change.
+     * @param listener the listener to add
+     * @return the setting for chaining
+     */
+    public RegistrySetSetting<T> addListener(@NotNull SettingChangeListener<List<String>> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void notifyListeners(@NotNull Object oldValue, @NotNull Object newValue) {
+        listeners.forEach(listener -> listener.onChange((List<String>) oldValue, (List<String>) newValue));
+    }
+
+    @Override
+    public boolean validateOrSetDefault(@NotNull Map<String, Object> map) {
+        Object obj = map.get(name);
+        boolean incorrect = !(obj instanceof List<?> list) || normalize(list) == null;
+
+        if (incorrect) map.put(name, new ArrayList<>(defaultValue));
+        return incorrect;
+    }
+
+    @Override
+    public boolean readJson(@NotNull JsonReader reader, @NotNull Map<String, Object> map) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) return false;
+
+        List<String> entries = new ArrayList<>();
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.STRING) return false;
+
+            String entry = reader.nextString();
+            if (normalize(entry) == null) return false;
+
+            entries.add(entry);
+        }
+
+        reader.endArray();
+        map.put(name, entries);
+        return true;
+    }
+
+    @Override
+    public void fromMap(@NotNull Map<String, Object> map) {
+        List<String> entries = map.get(name) instanceof List<?> list ? normalize(list) : null;
+
+        setValue(entries != null ? entries : defaultValue);
+    }
+
+    @Override
+    public void setMarkDirtyRunnable(@NotNull Runnable runnable) {
+        this.markDirty = runnable;
+    }
+
+    @Override
+    public void setDefaultSupplier(@NotNull Supplier<Map<String, Object>> supplier) {
+        defaultSupplier = supplier;
+    }
+
+    /**
+     * Sets the entries of the setting and marks it dirty if they changed.
+     * @param entries the new entries
+     */
+    private void setValue(@NotNull List<String> entries) {
+        if (get().equals(entries)) return;
+
+        store(entries);
+        markDirty.run();
+    }
+
+    /**
+     * Stores the entries and their resolved bitset with release semantics.
+     * @param entries the normalized entries to store
+     */
+    private void store(@NotNull List<String> entries) {
+        ENTRIES.setRelease(this, entries);
+        MEMBERS.setRelease(this, resolve(entries));
+    }
+
+    /**
+     * Resolves the entries again, called by {@link RegistrySettings} when the tags were loaded.
+     */
+    void onTagsLoaded() {
+        MEMBERS.setRelease(this, resolve(get()));
+    }
+
+    /**
+     * Resolves the entries into a bitset over the raw IDs of the registry.
+     * Entries that are not registered and tags that do not exist are skipped.
+     * @param entries the normalized entries
+     * @return a new bitset
+     */
+    private @NotNull BitSet resolve(@NotNull List<String> entries) {
+        BitSet bits = new BitSet(registry.size());
+
+        for (String entry : entries) {
+            if (entry.startsWith(TAG_PREFIX)) {
+                registry.getEntryList(TagKey.of(registry.getKey(), Identifier.tryParse(entry.substring(TAG_PREFIX.length()))))
+                        .ifPresent(tag -> tag.forEach(registryEntry -> bits.set(registry.getRawId(registryEntry.value()))));
+            } else {
+                Identifier id = Identifier.tryParse(entry);
+                if (registry.containsId(id)) bits.set(registry.getRawId(registry.get(id)));
+            }
+        }
+
+        return bits;
+    }
+
+    /**
+     * Normalizes the entries by adding the default namespace where it is missing and removing duplicates.
+     * @param entries the entries to normalize
+     * @return the normalized entries, not modifiable, or {@code null} if an entry is not a valid identifier or tag
+     */
+    private static @Nullable List<String> normalize(@NotNull List<?> entries) {
+        Set<String> normalized = new LinkedHashSet<>();
+
+        for (Object entry : entries) {
+            String value = entry instanceof String string ? normalize(string) : null;
+            if (value == null) return null;
+
+            normalized.add(value);
+        }
+
+        return List.copyOf(normalized);
+    }
+
+    /**
+     * Normalizes an entry by adding the default namespace if it is missing.
+     * @param entry the entry to normalize
+     * @return the normalized entry or {@code null} if it is not a valid identifier or tag
+     */
+    private static @Nullable String normalize(@NotNull String entry) {
+        boolean isTag = entry.startsWith(TAG_PREFIX);
+        Identifier id = Identifier.tryParse(isTag ? entry.substring(TAG_PREFIX.length()) : entry);
+
+        if (id == null) return null;
+        return isTag ? TAG_PREFIX + id : id.toString();
+    }
+
+    /**
+     * Checks if an entry refers to a registered entry or an existing tag of the registry.
+     * @param entry the normalized entry
+     * @return {@code true} if the entry exists, {@code false} otherwise
+     */
+    private boolean exists(@NotNull String entry) {
+        if (!entry.startsWith(TAG_PREFIX)) return registry.containsId(Identifier.tryParse(entry));
+
+        return registry.getEntryList(TagKey.of(registry.getKey(), Identifier.tryParse(entry.substring(TAG_PREFIX.length())))).isPresent();
+    }
+
+    /**
+     * Suggests the identifiers and tags of the registry that are not entries of the setting yet.
+     */
+    private CompletableFuture<Suggestions> suggestAdd(CommandContext<ServerCommandSource> context, SuggestionsBuilder builder) {
+        List<String> entries = get();
+
+        return CommandSource.suggestMatching(Stream.concat(
+                registry.getIds().stream().map(Identifier::toString),
+                registry.streamTags().map(tag -> TAG_PREFIX + tag.id())
+        ).filter(entry -> !entries.contains(entry)), builder);
+    }
+
+    /**
+     * Suggests the entries of the setting.
+     */
+    private CompletableFuture<Suggestions> suggestRemove(CommandContext<ServerCommandSource> context, SuggestionsBuilder builder) {
+        return CommandSource.suggestMatching(get(), builder);
+    }
+
+    /**
+     * Called when the command to get the entries of the setting is executed.
+     * @param context the command context
+     * @return the number of entries
+     */
+    private int get(CommandContext<ServerCommandSource> context) {
+        final List<String> entries = get();
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + entries).formatted(WHITE),
+                false);
+
+        return entries.size();
+    }
+
+    /**
+     * Called when the command to add an entry to the setting is executed.
+     * Only adds identifiers that are registered and tags that exist.
+     * @param context the command context
+     * @return 15 if the entry was added and 0 otherwise
+     */
+    private int add(CommandContext<ServerCommandSource> context) {
+        final String entry = normalize(StringArgumentType.getString(context, "entry"));
+
+        if (entry == null || !exists(entry)) {
+            context.getSource().sendError(Text.literal("Unknown entry: " + StringArgumentType.getString(context, "entry")));
+            return 0;
+        }
+
+        List<String> entries = new ArrayList<>(get());
+        if (!entries.contains(entry)) entries.add(entry);
+        setValue(List.copyOf(entries));
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + get()).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+
+    /**
+     * Called when the command to remove an entry from the setting is executed.
+     * @param context the command context
+     * @return 15 if the entry was removed and 0 otherwise
+     */
+    private int remove(CommandContext<ServerCommandSource> context) {
+        final String entry = normalize(StringArgumentType.getString(context, "entry"));
+        List<String> entries = new ArrayList<>(get());
+
+        if (entry == null || !entries.remove(entry)) {
+            context.getSource().sendError(Text.literal("Setting: " + name + " does not contain: " + StringArgumentType.getString(context, "entry")));
+            return 0;
+        }
+
+        setValue(List.copyOf(entries));
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + get()).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+
+    /**
+     * Called when the command to reset the entries of the setting is executed.
+     * Resets the entries of the setting to their default value.
+     * @param context the command context
+     * @return a success value (15 is value is true and 0 if false)
+     */
+    private int reset(CommandContext<ServerCommandSource> context) {
+        fromMap(defaultSupplier.get());
+
+        context.getSource().sendFeedback(
+                () -> Text.literal("Setting: " + name + " is currently set to: " + get()).formatted(WHITE),
+                true);
+
+        return 15;
+    }
+}
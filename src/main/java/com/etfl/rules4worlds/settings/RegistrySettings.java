@@ -0,0 +1,25 @@
+package com.etfl.rules4worlds.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Resolves the registry settings of a config again when the server loads its tags,
+ * so that a {@code ConfigManager} needs only one listener for all of its registry settings.
+ */
+public final class RegistrySettings {
+    private RegistrySettings() {}
+
+    /**
+     * Resolves the entries of all registry settings among the given settings again. Other settings are skipped.
+     * <b>Should only be called on the server thread.</b>
+     * @param settings the direct and indirect settings of a {@code ConfigManager}
+     */
+    public static void onTagsLoaded(@NotNull ConfigSetting[] settings) {
+        for (ConfigSetting setting : settings) {
+            if (setting instanceof RegistrySetSetting<?> set) set.onTagsLoaded();
+            else if (setting instanceof RegistryIntMapSetting<?> map) map.onTagsLoaded();
+            else if (setting instanceof RegistryDoubleMapSetting<?> map) map.onTagsLoaded();
+            else if (setting instanceof RegistryBoolMapSetting<?> map) map.onTagsLoaded();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.etfl.rules4worlds.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A listener that is notified when the value of a setting changed during a tick.
+ * Called once at the end of the tick, on the server thread.
+ * @param <T> the type of the value of the setting
+ */
+@FunctionalInterface
+public interface SettingChangeListener<T> {
+    /**
+     * Called when the value of the setting changed.
+     * @param oldValue the value before the first change during the tick
+     * @param newValue the value after the last change during the tick
+     */
+    void onChange(@NotNull T oldValue, @NotNull T newValue);
+}